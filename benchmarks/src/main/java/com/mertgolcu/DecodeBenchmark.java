@@ -0,0 +1,72 @@
+package com.mertgolcu;
+
+import com.mertgolcu.codec.Codec;
+import com.mertgolcu.codec.JsonCodec;
+import com.mertgolcu.codec.MessagePackCodec;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The decode shared by {@code execute} and {@code executeSync}, with the JSON and MessagePack codecs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodeBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int items;
+
+    @Param({"json", "msgpack"})
+    public String codec;
+
+    private SimpleClient client;
+    private Request request;
+    private byte[] payload;
+    private MediaType mediaType;
+
+    @Setup
+    public void setUp() throws IOException {
+        Codec selected = codec.equals("msgpack") ? MessagePackCodec.INSTANCE : JsonCodec.INSTANCE;
+        client = SimpleClient.builder().addCodec(selected).build();
+        request = new Request.Builder().url("https://api.example.com/v1/items").build();
+        mediaType = selected.getMediaType();
+        Buffer buffer = new Buffer();
+        selected.encode(buffer, Payloads.items(items), Payloads.ITEM_LIST, client.getAdapters().get(Payloads.ITEM_LIST));
+        payload = buffer.readByteArray();
+    }
+
+    @Benchmark
+    public List<Payloads.Item> decode() throws IOException {
+        Response response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(new Buffer().write(payload), mediaType, payload.length))
+                .build();
+        return client.decode(request, Payloads.ITEM_LIST, response, null);
+    }
+}
@@ -0,0 +1,126 @@
+package com.mertgolcu;
+
+import com.mertgolcu.util.ResponseCallback;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Full GET round trips against a local {@link MockWebServer}, sync and with callbacks.
+ * Each invocation sends {@code concurrency} requests and waits for all of them. The sync requests
+ * run on a fixed pool created once per trial, so thread creation is not measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"1", "100"})
+    public int items;
+
+    @Param({"1", "16", "64"})
+    public int concurrency;
+
+    private MockWebServer server;
+    private SimpleClient client;
+    private String url;
+    private ExecutorService callers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        client = SimpleClient.builder()
+                .maxRequests(Math.max(64, concurrency))
+                .maxRequestsPerHost(Math.max(5, concurrency))
+                .maxIdleConnections(Math.max(5, concurrency))
+                .build();
+        byte[] json = Payloads.json(client, items).readByteArray();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(json));
+            }
+        });
+        server.start();
+        url = server.url("/items").toString();
+        callers = Executors.newFixedThreadPool(concurrency);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        callers.shutdownNow();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Object sync() throws InterruptedException {
+        if (concurrency == 1)
+            return client.get(url, null, null, null, Payloads.ITEM_LIST);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        AtomicReference<Object> last = new AtomicReference<>();
+        for (int i = 0; i < concurrency; i++) {
+            callers.execute(() -> {
+                try {
+                    last.set(client.get(url, null, null, null, Payloads.ITEM_LIST));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return last.get();
+    }
+
+    @Benchmark
+    public Object asyncCallback() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        AtomicReference<Object> last = new AtomicReference<>();
+        for (int i = 0; i < concurrency; i++) {
+            client.<List<Payloads.Item>>get(url, null, null, null, Payloads.ITEM_LIST, new ResponseCallback<>() {
+                @Override
+                public void onFail(Exception e) {
+                    last.set(e);
+                    done.countDown();
+                }
+
+                @Override
+                public void onSuccess(List<Payloads.Item> data) {
+                    last.set(data);
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return last.get();
+    }
+}
@@ -0,0 +1,70 @@
+package com.mertgolcu;
+
+import com.squareup.moshi.Types;
+import okio.Buffer;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test payloads shared by the benchmarks.
+ */
+final class Payloads {
+
+    static final Type ITEM_LIST = Types.newParameterizedType(List.class, Item.class);
+
+    private Payloads() {
+    }
+
+    static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(i, "item-" + i, List.of("alpha", "beta", "gamma"), i * 0.5, i % 2 == 0));
+        }
+        return items;
+    }
+
+    static Buffer json(SimpleClient client, int count) {
+        Buffer buffer = new Buffer();
+        try {
+            client.getAdapters().<List<Item>>get(ITEM_LIST).toJson(buffer, items(count));
+        } catch (java.io.IOException e) {
+            throw new AssertionError(e);
+        }
+        return buffer;
+    }
+
+    /**
+     * POST bodies are encoded with the adapter of their runtime class, so lists are wrapped.
+     */
+    static class Batch {
+        List<Item> items;
+
+        Batch() {
+        }
+
+        Batch(List<Item> items) {
+            this.items = items;
+        }
+    }
+
+    static class Item {
+        long id;
+        String name;
+        List<String> tags;
+        double value;
+        boolean active;
+
+        Item() {
+        }
+
+        Item(long id, String name, List<String> tags, double value, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.tags = tags;
+            this.value = value;
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mertgolcu;
+
+import com.mertgolcu.request.RequestTemplate;
+import kotlin.Pair;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code createUrl} and {@code getRequestBuilder}/{@code setHeaders}, against binding a {@link RequestTemplate}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBuildingBenchmark {
+
+    private static final String URL = "https://api.example.com/v1/users/42/orders";
+
+    @Param({"0", "4", "16"})
+    public int params;
+
+    @Param({"0", "4", "16"})
+    public int headers;
+
+    private SimpleClient client;
+    private Map<String, String> paramMap;
+    private Map<String, String> headerMap;
+    private Pair<String, String> header;
+    private RequestTemplate template;
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        client = new SimpleClient();
+        paramMap = new LinkedHashMap<>();
+        for (int i = 0; i < params; i++) {
+            paramMap.put("param" + i, "value " + i);
+        }
+        headerMap = new LinkedHashMap<>();
+        for (int i = 0; i < headers; i++) {
+            headerMap.put("X-Header-" + i, "value-" + i);
+        }
+        header = new Pair<>("Authorization", "Bearer token");
+
+        StringBuilder urlTemplate = new StringBuilder("https://api.example.com/v1/users/{user}/orders");
+        values = new String[params + 1];
+        values[0] = "42";
+        for (int i = 0; i < params; i++) {
+            urlTemplate.append(i == 0 ? '?' : '&').append("param").append(i).append("={param").append(i).append('}');
+            values[i + 1] = "value " + i;
+        }
+        template = RequestTemplate.builder(urlTemplate.toString())
+                .header(header.getFirst(), header.getSecond())
+                .headers(headerMap)
+                .build();
+    }
+
+    @Benchmark
+    public HttpUrl createUrl() {
+        return client.createUrl(URL, paramMap);
+    }
+
+    @Benchmark
+    public Request createGetRequest() {
+        return client.createGetRequest(URL, header, headerMap, paramMap);
+    }
+
+    @Benchmark
+    public Request bindTemplate() {
+        return template.get(values);
+    }
+}
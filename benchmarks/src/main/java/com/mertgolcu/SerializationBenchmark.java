@@ -0,0 +1,65 @@
+package com.mertgolcu;
+
+import okhttp3.Request;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code createPostRequest} including writing the body the way OkHttp does.
+ * With {@code lowGarbage} the body is always precomputed through the scratch buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final String URL = "https://api.example.com/v1/items";
+
+    @Param({"1", "100", "10000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean precomputeContentLength;
+
+    @Param({"false", "true"})
+    public boolean lowGarbage;
+
+    private SimpleClient client;
+    private Payloads.Batch body;
+
+    @Setup
+    public void setUp() {
+        client = SimpleClient.builder()
+                .precomputeContentLength(precomputeContentLength)
+                .lowGarbage(lowGarbage)
+                .build();
+        body = new Payloads.Batch(Payloads.items(items));
+    }
+
+    @Benchmark
+    public Request createAndWritePostRequest() throws IOException {
+        Request request = client.createPostRequest(URL, null, null, null, body);
+        BufferedSink sink = Okio.buffer(Okio.blackhole());
+        Objects.requireNonNull(request.body()).writeTo(sink);
+        sink.flush();
+        return request;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mertgolcu;
+
+import com.mertgolcu.util.ResponseCallback;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * An OkHttp callback that decodes the response and hands it to a {@link ResponseCallback}.
+ * <p>
+ * It holds no per-call state, so one instance can be kept for a hot endpoint and passed to
+ * {@link SimpleClient#send(okhttp3.Request, ReusableCallback)} for every call, instead of
+ * allocating a future and a callback adapter per call.
+ *
+ * @param <T> expected response type
+ */
+public final class ReusableCallback<T> implements Callback {
+
+    private final SimpleClient client;
+    private final Type type;
+    private final ResponseCallback<T> callback;
+
+    ReusableCallback(SimpleClient client, Type type, ResponseCallback<T> callback) {
+        this.client = client;
+        this.type = type;
+        this.callback = callback;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ResponseCallback<T> getCallback() {
+        return callback;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        callback.onFail(e);
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) {
+        T value;
+        try (response) {
+            value = client.decodeOrFail(call.request(), type, response);
+        } catch (Exception e) {
+            callback.onFail(e);
+            return;
+        }
+        try {
+            callback.onSuccess(value);
+        } catch (Exception e) {
+            callback.onFail(e);
+        }
+    }
+}
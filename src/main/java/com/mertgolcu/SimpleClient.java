@@ -1,10 +1,60 @@
 package com.mertgolcu;
 
+import com.mertgolcu.auth.TokenProvider;
+import com.mertgolcu.balancer.LoadBalancer;
+import com.mertgolcu.cache.ObjectCache;
+import com.mertgolcu.codec.Codec;
+import com.mertgolcu.codec.CodecRequestBody;
+import com.mertgolcu.codec.Codecs;
+import com.mertgolcu.codec.JsonCodec;
+import com.mertgolcu.compression.CompressionPolicy;
+import com.mertgolcu.dns.CachingDns;
 import com.mertgolcu.exception.ResponseException;
+import com.mertgolcu.flow.PublisherRequestBody;
+import com.mertgolcu.flow.ResponsePublisher;
+import com.mertgolcu.interceptor.BearerAuthInterceptor;
+import com.mertgolcu.interceptor.CircuitBreakerInterceptor;
+import com.mertgolcu.interceptor.CompressionInterceptor;
+import com.mertgolcu.interceptor.HostConcurrencyInterceptor;
+import com.mertgolcu.interceptor.LoadBalancerInterceptor;
+import com.mertgolcu.interceptor.RateLimitInterceptor;
+import com.mertgolcu.interceptor.RetryInterceptor;
+import com.mertgolcu.interceptor.StreamLimitInterceptor;
+import com.mertgolcu.json.AdapterRegistry;
+import com.mertgolcu.json.JsonReadable;
+import com.mertgolcu.json.JsonRequestBody;
+import com.mertgolcu.json.ResponseIterator;
+import com.mertgolcu.json.StreamFormat;
+import com.mertgolcu.json.TypeReference;
+import com.mertgolcu.limit.LimitPolicy;
+import com.mertgolcu.metrics.ClientMetrics;
+import com.mertgolcu.metrics.ClientStats;
+import com.mertgolcu.metrics.ConnectionStreams;
+import com.mertgolcu.metrics.MetricsEventListener;
+import com.mertgolcu.metrics.Phase;
+import com.mertgolcu.request.BatchPolicy;
+import com.mertgolcu.request.PostBatcher;
+import com.mertgolcu.request.RequestCoalescer;
+import com.mertgolcu.request.RequestTemplate;
+import com.mertgolcu.resilience.HedgePolicy;
+import com.mertgolcu.resilience.HedgedCall;
+import com.mertgolcu.resilience.RetryPolicy;
+import com.mertgolcu.request.SimpleRequest;
 import com.mertgolcu.statement.ISimpleClientStatement;
+import com.mertgolcu.transfer.DownloadOptions;
+import com.mertgolcu.transfer.FileDownloader;
+import com.mertgolcu.transfer.FileRequestBody;
+import com.mertgolcu.transfer.ProgressListener;
 import com.mertgolcu.util.ClientMediaType;
+import com.mertgolcu.util.Futures;
+import com.mertgolcu.util.HttpProtocol;
 import com.mertgolcu.util.ResponseCallback;
+import com.mertgolcu.util.VirtualThreads;
+import com.mertgolcu.warmup.WarmUp;
+import com.mertgolcu.warmup.WarmUpPolicy;
+import com.mertgolcu.warmup.WarmUpReport;
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 import kotlin.Pair;
@@ -13,15 +63,37 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 public class SimpleClient implements ISimpleClientStatement {
 
+    private static final String ACCEPT = "Accept";
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
     /**
      * AppClient singleton instance
      */
@@ -32,21 +104,107 @@ public class SimpleClient implements ISimpleClientStatement {
      */
     private final Moshi moshi;
 
+    /**
+     * Cached JSON adapters by type
+     */
+    private final AdapterRegistry adapters;
+
     /**
      * OkHttpClient for network requests
      */
     private final OkHttpClient client;
 
+    /**
+     * Executor for blocking calls started by {@link #fanOut(List)}
+     */
+    private final ExecutorService blockingExecutor;
+
+    /**
+     * Encode POST bodies before sending so their content length is known
+     */
+    private final boolean precomputeContentLength;
+
+    /**
+     * Decoded GET responses, null when the object cache is disabled
+     */
+    @Nullable
+    private final ObjectCache objectCache;
+
+    /**
+     * Merges identical GETs in flight, null when coalescing is disabled
+     */
+    @Nullable
+    private final RequestCoalescer coalescer;
+
+    /**
+     * Receives call timings, null when metrics are disabled
+     */
+    @Nullable
+    private final ClientMetrics metrics;
+
+    /**
+     * Hedges slow GETs, null when hedging is disabled
+     */
+    @Nullable
+    private final HedgePolicy hedgePolicy;
+
+    /**
+     * Counts and caps streams per connection, null unless the protocol or a stream limit is configured
+     */
+    @Nullable
+    private final StreamLimitInterceptor streamTracker;
+    @Nullable
+    private final HostConcurrencyInterceptor hostConcurrency;
+
+    /**
+     * Wire formats by media type, JSON unless other codecs are added
+     */
+    private final Codecs codecs;
+
+    /**
+     * Encodes request bodies through a per-thread scratch buffer
+     */
+    private final boolean lowGarbage;
+
+    /**
+     * Warm-up started when the client was built, null if none was configured
+     */
+    @Nullable
+    private final CompletableFuture<WarmUpReport> warmUp;
 
     // region instance
     public SimpleClient(Interceptor interceptor) {
-        client = createOkHttpClient();
-        moshi = createMoshi();
+        this(new Builder().addInterceptor(interceptor));
     }
 
     public SimpleClient() {
-        client = createOkHttpClient();
-        moshi = createMoshi();
+        this(new Builder());
+    }
+
+    private SimpleClient(Builder builder) {
+        ExecutorService executorService = builder.virtualThreads
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : builder.executorService;
+        streamTracker = builder.protocol != null || builder.maxStreamsPerConnection > 0
+                ? new StreamLimitInterceptor(builder.maxStreamsPerConnection)
+                : null;
+        hostConcurrency = builder.hostLimits.isEmpty()
+                ? null
+                : new HostConcurrencyInterceptor(builder.maxRequestsPerHost, builder.hostLimits);
+        client = createOkHttpClient(builder, executorService);
+        moshi = createMoshi(builder);
+        adapters = createAdapterRegistry(builder);
+        precomputeContentLength = builder.precomputeContentLength;
+        codecs = Codecs.of(builder.codecs, builder.requestCodec);
+        lowGarbage = builder.lowGarbage;
+        objectCache = builder.objectCache;
+        coalescer = builder.coalescer;
+        metrics = builder.metrics;
+        hedgePolicy = builder.hedgePolicy;
+        blockingExecutor = builder.virtualThreads
+                ? executorService
+                : client.dispatcher().executorService();
+        warmUp = builder.warmUpPolicy != null ? warmUp(builder.warmUpPolicy) : null;
     }
 
     public static synchronized SimpleClient getInstance() {
@@ -61,88 +219,392 @@ public class SimpleClient implements ISimpleClientStatement {
         return instance;
     }
 
+    @NotNull
+    @Contract(" -> new")
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the connection pool used by this client, can be passed to {@link Builder#connectionPool(ConnectionPool)}
+     */
+    public ConnectionPool getConnectionPool() {
+        return client.connectionPool();
+    }
+
+    /**
+     * @return the JSON adapter cache, adapters can be registered or warmed up at runtime
+     */
+    public AdapterRegistry getAdapters() {
+        return adapters;
+    }
+
+    /**
+     * @return the decoded response cache with its hit and miss counters, null when it is disabled
+     */
+    @Nullable
+    public ObjectCache getObjectCache() {
+        return objectCache;
+    }
+
+    /**
+     * @return the GET coalescer with its counters, null when it is disabled
+     */
+    @Nullable
+    public RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * @return the metrics receiving call timings, null when they are disabled
+     */
+    @Nullable
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return current usage of the connection pool and dispatcher
+     */
+    public ClientStats getStats() {
+        ConnectionPool pool = client.connectionPool();
+        Dispatcher dispatcher = client.dispatcher();
+        return new ClientStats(pool.connectionCount(), pool.idleConnectionCount(),
+                dispatcher.runningCallsCount(), dispatcher.queuedCallsCount());
+    }
+
+    /**
+     * @return open connections with the streams each one carries, empty unless
+     * {@link Builder#protocol(HttpProtocol)} or {@link Builder#maxStreamsPerConnection(int)} is set
+     */
+    public List<ConnectionStreams> getConnectionStreams() {
+        return streamTracker != null ? streamTracker.snapshot() : List.of();
+    }
+
+    /**
+     * @return readiness of the warm-up configured with {@link Builder#warmUp(WarmUpPolicy)}, null if there is none
+     */
+    @Nullable
+    public CompletableFuture<WarmUpReport> getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * Resolves hosts, opens connections and exercises adapters in the background, see {@link WarmUpPolicy}.
+     *
+     * @return future of the report, it completes after every step finished or failed and never fails itself
+     */
+    @NotNull
+    public CompletableFuture<WarmUpReport> warmUp(@NotNull WarmUpPolicy policy) {
+        // warm-up requests go straight to the hosts, without retries, auth or limits
+        OkHttpClient.Builder direct = client.newBuilder();
+        direct.interceptors().clear();
+        return new WarmUp(direct.build(), adapters, blockingExecutor).start(policy);
+    }
+
+    /**
+     * @return the dispatcher used by this client, can be passed to {@link Builder#dispatcher(Dispatcher)}
+     */
+    public Dispatcher getDispatcher() {
+        return client.dispatcher();
+    }
+
     // endregion
 
     // region CREATORS
     @NotNull
-    @Contract(" -> new")
-    private Moshi createMoshi() {
-        return new Moshi.Builder()
-                .build();
+    private Moshi createMoshi(Builder builder) {
+        Moshi.Builder moshiBuilder = new Moshi.Builder();
+        for (Map.Entry<Type, JsonAdapter<?>> entry : builder.adapters.entrySet()) {
+            moshiBuilder.add(entry.getKey(), entry.getValue());
+        }
+        for (JsonAdapter.Factory factory : builder.adapterFactories) {
+            moshiBuilder.add(factory);
+        }
+        return moshiBuilder.build();
     }
 
     @NotNull
-    private OkHttpClient createOkHttpClient(Interceptor interceptor) {
-        return new OkHttpClient.Builder()
-                .addInterceptor(interceptor)
-                .callTimeout(Duration.ofSeconds(20))
-                .readTimeout(Duration.ofSeconds(20))
-                .build();
+    private AdapterRegistry createAdapterRegistry(Builder builder) {
+        AdapterRegistry registry = new AdapterRegistry(moshi);
+        for (Map.Entry<Type, JsonAdapter<?>> entry : builder.adapters.entrySet()) {
+            registry.register(entry.getKey(), entry.getValue());
+        }
+        registry.warmUp(builder.warmUpTypes.toArray(new Type[0]));
+        return registry;
     }
 
     @NotNull
-    private OkHttpClient createOkHttpClient() {
-        return new OkHttpClient.Builder()
-                .callTimeout(Duration.ofSeconds(20))
-                .readTimeout(Duration.ofSeconds(20))
-                .build();
+    private OkHttpClient createOkHttpClient(Builder builder, @Nullable ExecutorService executorService) {
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+                .connectionPool(createConnectionPool(builder))
+                .dispatcher(createDispatcher(builder, executorService))
+                .callTimeout(builder.callTimeout)
+                .readTimeout(builder.readTimeout)
+                .connectTimeout(builder.connectTimeout);
+        if (builder.httpCache != null)
+            clientBuilder.cache(builder.httpCache);
+        if (builder.dns != null)
+            clientBuilder.dns(builder.dns);
+        if (builder.protocol != null)
+            clientBuilder.protocols(builder.protocol.getProtocols());
+        if (builder.pingInterval != null)
+            clientBuilder.pingInterval(builder.pingInterval);
+        if (streamTracker != null)
+            clientBuilder.addNetworkInterceptor(streamTracker);
+        if (builder.metrics != null)
+            clientBuilder.eventListenerFactory(MetricsEventListener.factory(builder.metrics));
+        if (builder.retryPolicy != null)
+            clientBuilder.addInterceptor(new RetryInterceptor(builder.retryPolicy));
+        if (!builder.loadBalancers.isEmpty())
+            clientBuilder.addInterceptor(new LoadBalancerInterceptor(builder.loadBalancers));
+        if (builder.circuitBreaker != null)
+            clientBuilder.addInterceptor(builder.circuitBreaker);
+        if (builder.limitPolicy != null)
+            clientBuilder.addInterceptor(new RateLimitInterceptor(builder.limitPolicy.copy()));
+        if (builder.tokenProvider != null) {
+            builder.tokenProvider.prefetch();
+            clientBuilder.addInterceptor(new BearerAuthInterceptor(builder.tokenProvider));
+        }
+        if (hostConcurrency != null)
+            clientBuilder.addInterceptor(hostConcurrency);
+        for (Interceptor interceptor : builder.interceptors) {
+            clientBuilder.addInterceptor(interceptor);
+        }
+        if (builder.compressionPolicy != null)
+            clientBuilder.addInterceptor(new CompressionInterceptor(builder.compressionPolicy));
+        OkHttpClient okHttpClient = clientBuilder.build();
+        if (!builder.loadBalancers.isEmpty()) {
+            // health probes go straight to the endpoints, without retries, auth or limits
+            OkHttpClient.Builder probeBuilder = okHttpClient.newBuilder();
+            probeBuilder.interceptors().clear();
+            OkHttpClient probeClient = probeBuilder.build();
+            for (LoadBalancer balancer : builder.loadBalancers) {
+                balancer.start(probeClient);
+            }
+        }
+        return okHttpClient;
+    }
+
+    @NotNull
+    private ConnectionPool createConnectionPool(Builder builder) {
+        if (builder.connectionPool != null)
+            return builder.connectionPool;
+        return new ConnectionPool(builder.maxIdleConnections, builder.keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @NotNull
+    private Dispatcher createDispatcher(Builder builder, @Nullable ExecutorService executorService) {
+        // shared dispatchers keep the limits of their owner
+        if (builder.dispatcher != null)
+            return builder.dispatcher;
+        Dispatcher dispatcher = executorService != null
+                ? new Dispatcher(executorService)
+                : new Dispatcher();
+        dispatcher.setMaxRequests(builder.maxRequests);
+        int maxRequestsPerHost = builder.maxRequestsPerHost;
+        for (int limit : builder.hostLimits.values()) {
+            maxRequestsPerHost = Math.max(maxRequestsPerHost, limit);
+        }
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return dispatcher;
+    }
+
+    @Nullable
+    private <T> T executeSync(Request request, Type type) {
+        ObjectCache.Entry cached = lookup(request, type);
+        if (cached != null && cached.isFresh())
+            return cached.getValue();
+        if (coalescer != null && coalescer.canCoalesce(request)) {
+            try {
+                // the shared result fails like an async call, so callers that joined it see the error
+                return coalescer.<T>coalesce(request, type, () -> {
+                    try (Response response = call(conditional(request, cached))) {
+                        return CompletableFuture.completedFuture(decodeOrFail(request, type, response, cached));
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }).join();
+            } catch (CompletionException | CancellationException e) {
+                Futures.unwrap(e).printStackTrace();
+                return null;
+            }
+        }
+        return executeSync(request, type, cached);
     }
 
     @Nullable
-    private <T> T executeSync(Request request, Class<T> clazz) {
-        JsonAdapter<T> genericAdapter = moshi.adapter(clazz);
-        try (Response response = client.newCall(request).execute()) {
-            return genericAdapter
-                    .fromJson(Objects.requireNonNull(response.body()).source());
+    private <T> T executeSync(Request request, Type type, @Nullable ObjectCache.Entry cached) {
+        try (Response response = call(conditional(request, cached))) {
+            return decode(request, type, response, cached);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    private <T> void execute(Request request, Class<T> clazz, ResponseCallback<T> callback) {
-        JsonAdapter<T> genericAdapter = moshi.adapter(clazz);
-        client.newCall(request)
-                .enqueue(new Callback() {
-                    @Override
-                    public void onFailure(@NotNull Call call, @NotNull IOException e) {
-                        callback.onFail(e);
+    private <T> void execute(Request request, Type type, ResponseCallback<T> callback) {
+        this.<T>executeAsync(request, type)
+                .whenComplete((responseObject, error) -> {
+                    if (error != null) {
+                        Throwable cause = Futures.unwrap(error);
+                        callback.onFail(cause instanceof Exception e ? e : new RuntimeException(cause));
+                        return;
                     }
-
-                    @Override
-                    public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
-                        try {
-                            if (response.isSuccessful()) {
-                                T responseObject = genericAdapter
-                                        .fromJson(Objects.requireNonNull(response.body()).source());
-                                callback.onSuccess(responseObject);
-                            } else {
-                                callback.onFail(new ResponseException(response.message(), response.code()));
-                            }
-                        } catch (Exception e) {
-                            callback.onFail(e);
-                        }
+                    try {
+                        callback.onSuccess(responseObject);
+                    } catch (Exception e) {
+                        callback.onFail(e);
                     }
                 });
     }
 
     @NotNull
-    private <V> Request createPostRequest(String rawUrl,
-                                          @Nullable Pair<String, String> header,
-                                          @Nullable Map<String, String> headers,
-                                          @Nullable Map<String, String> params,
-                                          @NotNull V body) {
+    private <T> CompletableFuture<T> executeAsync(Request request, Type type) {
+        ObjectCache.Entry cached = lookup(request, type);
+        if (cached != null && cached.isFresh())
+            return CompletableFuture.completedFuture(cached.getValue());
+        if (coalescer != null && coalescer.canCoalesce(request))
+            return coalescer.coalesce(request, type, () -> enqueue(request, type, cached));
+        return enqueue(request, type, cached);
+    }
+
+    @NotNull
+    private <T> CompletableFuture<T> enqueue(Request request, Type type, @Nullable ObjectCache.Entry cached) {
+        Request conditional = conditional(request, cached);
+        if (hedgePolicy != null && hedgePolicy.canHedge(conditional)) {
+            CompletableFuture<Response> hedged = HedgedCall.execute(client, conditional, hedgePolicy);
+            CompletableFuture<T> future = new CompletableFuture<>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    hedged.cancel(mayInterruptIfRunning);
+                    return super.cancel(mayInterruptIfRunning);
+                }
+            };
+            hedged.whenComplete((response, error) -> {
+                if (error != null)
+                    future.completeExceptionally(Futures.unwrap(error));
+                else
+                    complete(future, request, type, response, cached);
+            });
+            return future;
+        }
+        Call call = client.newCall(conditional);
+        CallFuture<T> future = new CallFuture<>(call, request, type, cached);
+        enqueue(call, future);
+        return future;
+    }
+
+    /**
+     * Holds calls over a per-host limit back before they reach the dispatcher, see {@link HostConcurrencyInterceptor}.
+     */
+    private void enqueue(Call call, Callback callback) {
+        if (hostConcurrency != null)
+            hostConcurrency.enqueue(call, callback);
+        else
+            call.enqueue(callback);
+    }
+
+    private <T> void complete(CompletableFuture<T> future, Request request, Type type, Response response, @Nullable ObjectCache.Entry cached) {
+        try (response) {
+            future.complete(decodeOrFail(request, type, response, cached));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    <T> T decodeOrFail(Request request, Type type, Response response) throws IOException, ResponseException {
+        return decodeOrFail(request, type, response, null);
+    }
+
+    /**
+     * Decodes a successful or not modified response, fails with {@link ResponseException} otherwise.
+     */
+    private <T> T decodeOrFail(Request request, Type type, Response response, @Nullable ObjectCache.Entry cached) throws IOException, ResponseException {
+        if (response.isSuccessful() || isNotModified(response, cached))
+            return decode(request, type, response, cached);
+        ResponseException error = new ResponseException(response.message(), response.code());
+        if (metrics != null)
+            metrics.recordFailure(request.url().host(), error);
+        throw error;
+    }
+
+    /**
+     * Executes the request on the calling thread, hedged when the policy allows it.
+     */
+    private Response call(Request request) throws IOException {
+        if (hedgePolicy == null || !hedgePolicy.canHedge(request))
+            return client.newCall(request).execute();
+        CompletableFuture<Response> hedged = HedgedCall.execute(client, request, hedgePolicy);
+        try {
+            return hedged.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause)
+                throw cause;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            hedged.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged call");
+        }
+    }
+
+    /**
+     * Decodes the response body, or reuses the cached value on a {@code 304}.
+     */
+    <T> T decode(Request request, Type type, Response response, @Nullable ObjectCache.Entry cached) throws IOException {
+        if (isNotModified(response, cached)) {
+            objectCache.revalidated(cached, response);
+            return cached.getValue();
+        }
+        JsonAdapter<T> genericAdapter = adapters.get(type);
+        ResponseBody body = Objects.requireNonNull(response.body());
+        Codec codec = codecs.forContentType(body.contentType());
+        long decodeStart = System.nanoTime();
+        T responseObject;
+        try {
+            responseObject = codec.decode(body.source(), type, genericAdapter);
+        } catch (IOException | RuntimeException e) {
+            if (metrics != null)
+                metrics.recordFailure(request.url().host(), e);
+            throw e;
+        }
+        if (metrics != null)
+            metrics.record(request.url().host(), Phase.DECODE, System.nanoTime() - decodeStart);
+        if (objectCache != null && "GET".equals(request.method()))
+            objectCache.put(request, type, responseObject, response);
+        return responseObject;
+    }
+
+    @Nullable
+    private ObjectCache.Entry lookup(Request request, Type type) {
+        if (objectCache == null || !"GET".equals(request.method()))
+            return null;
+        return objectCache.lookup(request, type);
+    }
+
+    private Request conditional(Request request, @Nullable ObjectCache.Entry cached) {
+        return cached == null ? request : objectCache.conditional(request, cached);
+    }
+
+    @Contract("_, null -> false")
+    private boolean isNotModified(Response response, @Nullable ObjectCache.Entry cached) {
+        return cached != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED;
+    }
+
+    @NotNull
+    <V> Request createPostRequest(String rawUrl,
+                                  @Nullable Pair<String, String> header,
+                                  @Nullable Map<String, String> headers,
+                                  @Nullable Map<String, String> params,
+                                  @NotNull V body) {
         Request.Builder builder = getRequestBuilder(rawUrl, header, headers, params);
-        Type requestBodyType = Types.getRawType(body.getClass());
-        JsonAdapter<V> jsonAdapter = moshi.adapter(requestBodyType);
-        String requestBodyJson = jsonAdapter.toJson(body);
-        RequestBody requestBody = RequestBody.create(ClientMediaType.JSON.getMediaType(), requestBodyJson);
-        builder.post(requestBody);
+        builder.post(encodeBody(body));
         return builder.build();
     }
 
     @NotNull
-    private Request createGetRequest(
+    Request createGetRequest(
             String rawUrl,
             @Nullable Pair<String, String> header,
             @Nullable Map<String, String> headers,
@@ -151,22 +613,25 @@ public class SimpleClient implements ISimpleClientStatement {
         return getRequestBuilder(rawUrl, header, headers, params).build();
     }
 
-    private Request.Builder getRequestBuilder(String rawUrl,
-                                              @Nullable Pair<String, String> header,
-                                              @Nullable Map<String, String> headers,
-                                              @Nullable Map<String, String> params) {
+    Request.Builder getRequestBuilder(String rawUrl,
+                                      @Nullable Pair<String, String> header,
+                                      @Nullable Map<String, String> headers,
+                                      @Nullable Map<String, String> params) {
         Request.Builder builder = new Request.Builder();
         builder.url(createUrl(rawUrl, params));
         if (header != null)
             builder.addHeader(header.getFirst(), header.getSecond());
         builder = setHeaders(builder, headers);
+        String accept = codecs.getAcceptHeader();
+        if (accept != null && !hasHeader(ACCEPT, header, headers))
+            builder.header(ACCEPT, accept);
         return builder;
     }
 
     // endregion
 
     // region Utils
-    private Request.Builder setHeaders(Request.Builder builder, @Nullable Map<String, String> headers) {
+    Request.Builder setHeaders(Request.Builder builder, @Nullable Map<String, String> headers) {
         if (headers != null) {
             for (Map.Entry<String, String> entry : headers.entrySet()) {
                 builder.addHeader(entry.getKey(), entry.getValue());
@@ -176,6 +641,18 @@ public class SimpleClient implements ISimpleClientStatement {
         return builder;
     }
 
+    private static boolean hasHeader(String name, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers) {
+        if (header != null && name.equalsIgnoreCase(header.getFirst()))
+            return true;
+        if (headers != null) {
+            for (String key : headers.keySet()) {
+                if (name.equalsIgnoreCase(key))
+                    return true;
+            }
+        }
+        return false;
+    }
+
     private Request.Builder setHeader(Request.Builder builder, String name, String value) {
         if (name != null && value != null) {
             builder.addHeader(name, value);
@@ -184,12 +661,13 @@ public class SimpleClient implements ISimpleClientStatement {
         return builder;
     }
 
-    private HttpUrl createUrl(@NotNull String rawUrl, @Nullable Map<String, String> params) {
-        HttpUrl.Builder builder = Objects.requireNonNull(HttpUrl.parse(rawUrl)).newBuilder();
-        if (params != null) {
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                builder.addQueryParameter(entry.getKey(), entry.getValue());
-            }
+    HttpUrl createUrl(@NotNull String rawUrl, @Nullable Map<String, String> params) {
+        HttpUrl url = Objects.requireNonNull(HttpUrl.parse(rawUrl));
+        if (params == null || params.isEmpty())
+            return url;
+        HttpUrl.Builder builder = url.newBuilder();
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            builder.addQueryParameter(entry.getKey(), entry.getValue());
         }
         return builder.build();
     }
@@ -261,6 +739,985 @@ public class SimpleClient implements ISimpleClientStatement {
     public <T, V> T post(String url, V requestBody, Class<T> clazz) {
         return post(url, null, requestBody, clazz);
     }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, Class<T> clazz) {
+        Request request = createGetRequest(url, header, headers, params);
+        return executeAsync(request, clazz);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, @Nullable Map<String, String> params, Class<T> clazz) {
+        return getAsync(url, null, null, params, clazz);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> clazz) {
+        return getAsync(url, null, clazz);
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, V requestBody, Class<T> clazz) {
+        Request request = createPostRequest(url, header, headers, params, requestBody);
+        return executeAsync(request, clazz);
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, @Nullable Map<String, String> params, V requestBody, Class<T> clazz) {
+        return postAsync(url, null, null, params, requestBody, clazz);
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, V requestBody, Class<T> clazz) {
+        return postAsync(url, null, requestBody, clazz);
+    }
+
+    @Override
+    public <T> void get(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, Type type, ResponseCallback<T> callback) {
+        Request request = createGetRequest(url, header, headers, params);
+        execute(request, type, callback);
+    }
+
+    @Override
+    public <T> T get(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, Type type) {
+        Request request = createGetRequest(url, header, headers, params);
+        return executeSync(request, type);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, Type type) {
+        Request request = createGetRequest(url, header, headers, params);
+        return executeAsync(request, type);
+    }
+
+    @Override
+    public <T> void get(String url, @Nullable Map<String, String> params, TypeReference<T> typeReference, ResponseCallback<T> callback) {
+        get(url, null, null, params, typeReference.getType(), callback);
+    }
+
+    @Override
+    public <T> T get(String url, @Nullable Map<String, String> params, TypeReference<T> typeReference) {
+        return get(url, null, null, params, typeReference.getType());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, @Nullable Map<String, String> params, TypeReference<T> typeReference) {
+        return getAsync(url, null, null, params, typeReference.getType());
+    }
+
+    @Override
+    public <T> T get(String url, TypeReference<T> typeReference) {
+        return get(url, null, typeReference);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String url, TypeReference<T> typeReference) {
+        return getAsync(url, null, typeReference);
+    }
+
+    @Override
+    public <T, V> void post(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, V requestBody, Type type, ResponseCallback<T> callback) {
+        Request request = createPostRequest(url, header, headers, params, requestBody);
+        execute(request, type, callback);
+    }
+
+    @Override
+    public <T, V> T post(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, V requestBody, Type type) {
+        Request request = createPostRequest(url, header, headers, params, requestBody);
+        return executeSync(request, type);
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, @Nullable Pair<String, String> header, @Nullable Map<String, String> headers, @Nullable Map<String, String> params, V requestBody, Type type) {
+        Request request = createPostRequest(url, header, headers, params, requestBody);
+        return executeAsync(request, type);
+    }
+
+    @Override
+    public <T, V> void post(String url, @Nullable Map<String, String> params, V requestBody, TypeReference<T> typeReference, ResponseCallback<T> callback) {
+        post(url, null, null, params, requestBody, typeReference.getType(), callback);
+    }
+
+    @Override
+    public <T, V> T post(String url, @Nullable Map<String, String> params, V requestBody, TypeReference<T> typeReference) {
+        return post(url, null, null, params, requestBody, typeReference.getType());
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, @Nullable Map<String, String> params, V requestBody, TypeReference<T> typeReference) {
+        return postAsync(url, null, null, params, requestBody, typeReference.getType());
+    }
+
+    @Override
+    public <T, V> T post(String url, V requestBody, TypeReference<T> typeReference) {
+        return post(url, null, requestBody, typeReference);
+    }
+
+    @Override
+    public <T, V> CompletableFuture<T> postAsync(String url, V requestBody, TypeReference<T> typeReference) {
+        return postAsync(url, null, requestBody, typeReference);
+    }
+    // endregion
+
+    // region Prebuilt requests
+
+    /**
+     * Serializes the body with the registered adapters, for requests built outside of the client
+     * like {@link RequestTemplate#post(RequestBody, String...)}.
+     */
+    @NotNull
+    public <V> RequestBody jsonBody(@NotNull V body) {
+        JsonAdapter<V> jsonAdapter = adapters.get(body.getClass());
+        if (lowGarbage)
+            return JsonRequestBody.pooled(jsonAdapter, body);
+        return precomputeContentLength
+                ? JsonRequestBody.precomputed(jsonAdapter, body)
+                : JsonRequestBody.streaming(jsonAdapter, body);
+    }
+
+    /**
+     * Serializes the body with the request codec, see {@link Builder#requestCodec(Codec)}.
+     */
+    @NotNull
+    public <V> RequestBody encodeBody(@NotNull V body) {
+        Codec codec = codecs.getRequestCodec();
+        if (codec == JsonCodec.INSTANCE)
+            return jsonBody(body);
+        JsonAdapter<V> adapter = adapters.get(body.getClass());
+        if (lowGarbage)
+            return CodecRequestBody.pooled(codec, adapter, body);
+        return precomputeContentLength
+                ? CodecRequestBody.precomputed(codec, adapter, body)
+                : CodecRequestBody.streaming(codec, adapter, body);
+    }
+
+    /**
+     * Sends a request that is already built, e.g. by a {@link RequestTemplate}.
+     * It goes through the same cache, coalescing, metrics and hedging as the get/post methods.
+     *
+     * @return response object, null if the call failed
+     */
+    @Nullable
+    public <T> T send(@NotNull Request request, @NotNull Type type) {
+        return executeSync(request, type);
+    }
+
+    @Nullable
+    public <T> T send(@NotNull Request request, @NotNull Class<T> clazz) {
+        return executeSync(request, clazz);
+    }
+
+    public <T> void send(@NotNull Request request, @NotNull Class<T> clazz, @NotNull ResponseCallback<T> callback) {
+        execute(request, clazz, callback);
+    }
+
+    @NotNull
+    public <T> CompletableFuture<T> sendAsync(@NotNull Request request, @NotNull Type type) {
+        return executeAsync(request, type);
+    }
+
+    @NotNull
+    public <T> CompletableFuture<T> sendAsync(@NotNull Request request, @NotNull Class<T> clazz) {
+        return executeAsync(request, clazz);
+    }
+
+    /**
+     * @return a callback adapter to keep and pass to {@link #send(Request, ReusableCallback)} for every call
+     */
+    @NotNull
+    public <T> ReusableCallback<T> reusableCallback(@NotNull Type type, @NotNull ResponseCallback<T> callback) {
+        return new ReusableCallback<>(this, type, callback);
+    }
+
+    @NotNull
+    public <T> ReusableCallback<T> reusableCallback(@NotNull Class<T> clazz, @NotNull ResponseCallback<T> callback) {
+        return new ReusableCallback<>(this, clazz, callback);
+    }
+
+    /**
+     * Sends the request with a kept callback adapter, so the client allocates nothing for the callback.
+     * Requests that may be served by the object cache, coalesced or hedged take the regular path.
+     */
+    public <T> void send(@NotNull Request request, @NotNull ReusableCallback<T> callback) {
+        boolean regular = (objectCache != null && "GET".equals(request.method()))
+                || (coalescer != null && coalescer.canCoalesce(request))
+                || (hedgePolicy != null && hedgePolicy.canHedge(request));
+        if (regular)
+            execute(request, callback.getType(), callback.getCallback());
+        else
+            enqueue(client.newCall(request), callback);
+    }
+
+    /**
+     * Sends the request on the calling thread and reads the response into {@code target},
+     * so a caller can reuse one object instead of allocating a new one per response.
+     *
+     * @return the target
+     * @throws ResponseException if the response is not successful
+     */
+    @NotNull
+    public <T extends JsonReadable> T sendInto(@NotNull Request request, @NotNull T target) throws IOException, ResponseException {
+        try (Response response = call(request)) {
+            if (!response.isSuccessful()) {
+                ResponseException error = new ResponseException(response.message(), response.code());
+                if (metrics != null)
+                    metrics.recordFailure(request.url().host(), error);
+                throw error;
+            }
+            long decodeStart = System.nanoTime();
+            try (JsonReader reader = JsonReader.of(Objects.requireNonNull(response.body()).source())) {
+                target.readJson(reader);
+            } catch (IOException | RuntimeException e) {
+                if (metrics != null)
+                    metrics.recordFailure(request.url().host(), e);
+                throw e;
+            }
+            if (metrics != null)
+                metrics.record(request.url().host(), Phase.DECODE, System.nanoTime() - decodeStart);
+            return target;
+        }
+    }
+
+    // endregion
+
+    // region Batching
+
+    /**
+     * Returns a batcher that sends the elements added to it as JSON arrays to the url and completes each
+     * caller with its element of the response array, see {@link PostBatcher}. Batches go through the
+     * interceptors like any other call.
+     *
+     * @param url           endpoint that accepts an array of elements and answers with an array in the same order
+     * @param elementClass  class of a single element
+     * @param responseClass class of a single response element, {@code Void.class} to ignore the response body
+     * @param policy        limits that send a batch
+     */
+    @NotNull
+    public <V, T> PostBatcher<V, T> batcher(@NotNull String url,
+                                            @NotNull Class<V> elementClass,
+                                            @NotNull Class<T> responseClass,
+                                            @NotNull BatchPolicy policy) {
+        JsonAdapter<List<T>> responseAdapter = responseClass == Void.class
+                ? null
+                : adapters.get(Types.newParameterizedType(List.class, responseClass));
+        // the response array is always decoded as JSON whatever the codecs accept
+        Request request = getRequestBuilder(url, null, null, null)
+                .header(ACCEPT, ClientMediaType.JSON.label)
+                .build();
+        return new PostBatcher<>(client, request, adapters.get(elementClass), responseAdapter, policy);
+    }
+
+    // endregion
+
+    // region Fan-out
+
+    /**
+     * Sends the given requests with at most {@code maxConcurrency} in flight at once.
+     * The first failure fails the batch and cancels the calls still running,
+     * cancelling the returned future cancels them as well.
+     *
+     * @param requests       requests to send
+     * @param maxConcurrency max calls in flight at once
+     * @return future of the responses in the order of the requests
+     */
+    public <T> CompletableFuture<List<T>> batch(@NotNull List<SimpleRequest<? extends T>> requests, int maxConcurrency) {
+        return Futures.inOrder(requests.size(), maxConcurrency, index -> send(requests.get(index)));
+    }
+
+    private <T> CompletableFuture<T> send(SimpleRequest<T> request) {
+        if (request.isPost())
+            return postAsync(request.getUrl(), request.getHeader(), request.getHeaders(), request.getParams(),
+                    request.getBody(), request.getClazz());
+        return getAsync(request.getUrl(), request.getHeader(), request.getHeaders(), request.getParams(),
+                request.getClazz());
+    }
+
+    /**
+     * Runs the given blocking calls at once and waits for all of them.
+     * In virtual thread mode every call gets its own virtual thread,
+     * so thousands of calls can be in flight without growing a thread pool.
+     *
+     * @param calls blocking calls, usually wrapping the synchronous get/post methods
+     * @return results in the order of the calls
+     * @throws ExecutionException   with the first call that failed in the order of the calls, unfinished calls are cancelled
+     * @throws InterruptedException if the caller is interrupted, unfinished calls are cancelled
+     */
+    public <T> List<T> fanOut(@NotNull List<? extends Callable<T>> calls) throws InterruptedException, ExecutionException {
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        for (Callable<T> call : calls) {
+            futures.add(blockingExecutor.submit(call));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Sends a synchronous GET request to every url at once, see {@link #fanOut(List)}.
+     *
+     * @param urls  target endpoint URLs
+     * @param clazz class of the expected response type
+     * @return responses in the order of the urls, null for a call that failed like {@link #get(String, Class)}
+     * @throws ExecutionException if a url is invalid
+     */
+    public <T> List<T> getAll(@NotNull List<String> urls, Class<T> clazz) throws InterruptedException, ExecutionException {
+        List<Callable<T>> calls = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            calls.add(() -> get(url, clazz));
+        }
+        return fanOut(calls);
+    }
+
+    // endregion
+
+    // region Streaming
+
+    /**
+     * Sends a GET request and passes every element of the response to the consumer as soon as it is decoded.
+     * The whole response is never held in memory.
+     *
+     * @param url          target endpoint URL
+     * @param params       query parameters as a Map
+     * @param elementClass class of a single element
+     * @param format       layout of the response body
+     * @param consumer     called for every element on the calling thread
+     * @throws IOException       if the call or the decoding fails
+     * @throws ResponseException if the response is not successful
+     */
+    public <T> void stream(String url,
+                           @Nullable Map<String, String> params,
+                           Class<T> elementClass,
+                           StreamFormat format,
+                           Consumer<? super T> consumer) throws IOException, ResponseException {
+        try (ResponseIterator<T> iterator = iterate(url, params, elementClass, format)) {
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Streams the elements of a JSON array response, see {@link #stream(String, Map, Class, StreamFormat, Consumer)}.
+     */
+    public <T> void stream(String url, Class<T> elementClass, Consumer<? super T> consumer) throws IOException, ResponseException {
+        stream(url, null, elementClass, StreamFormat.JSON_ARRAY, consumer);
+    }
+
+    /**
+     * Sends a GET request and returns an iterator that decodes the response one element at a time.
+     * The iterator must be closed when it is not read to the end.
+     *
+     * @param url          target endpoint URL
+     * @param params       query parameters as a Map
+     * @param elementClass class of a single element
+     * @param format       layout of the response body
+     * @return iterator over the decoded elements
+     * @throws IOException       if the call fails
+     * @throws ResponseException if the response is not successful
+     */
+    public <T> ResponseIterator<T> iterate(String url,
+                                           @Nullable Map<String, String> params,
+                                           Class<T> elementClass,
+                                           StreamFormat format) throws IOException, ResponseException {
+        Response response = client.newCall(createStreamRequest(url, params, format)).execute();
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new ResponseException(response.message(), response.code());
+        }
+        return new ResponseIterator<>(response, adapters.get(elementClass), format);
+    }
+
+    /**
+     * Iterates the elements of a JSON array response, see {@link #iterate(String, Map, Class, StreamFormat)}.
+     */
+    public <T> ResponseIterator<T> iterate(String url, Class<T> elementClass) throws IOException, ResponseException {
+        return iterate(url, null, elementClass, StreamFormat.JSON_ARRAY);
+    }
+
+    /**
+     * Returns a publisher of the decoded elements of a GET response. Every subscription sends the request,
+     * and the response is only read while the subscriber has requested more elements, see {@link ResponsePublisher}.
+     *
+     * @param url          target endpoint URL
+     * @param params       query parameters as a Map
+     * @param elementClass class of a single element
+     * @param format       layout of the response body
+     */
+    @NotNull
+    public <T> Flow.Publisher<T> publisher(String url,
+                                           @Nullable Map<String, String> params,
+                                           Class<T> elementClass,
+                                           StreamFormat format) {
+        return new ResponsePublisher<>(client, createStreamRequest(url, params, format), adapters.get(elementClass), format, blockingExecutor);
+    }
+
+    /**
+     * Publishes the elements of a JSON array response, see {@link #publisher(String, Map, Class, StreamFormat)}.
+     */
+    @NotNull
+    public <T> Flow.Publisher<T> publisher(String url, Class<T> elementClass) {
+        return publisher(url, null, elementClass, StreamFormat.JSON_ARRAY);
+    }
+
+    /**
+     * Sends a POST request whose body is written from the published elements while they arrive,
+     * only requesting as many as the upload keeps up with, see {@link PublisherRequestBody}.
+     * The call timeout of the client does not apply, the write and read timeouts do.
+     *
+     * @param url          target endpoint URL
+     * @param params       query parameters as a Map
+     * @param elements     elements of the request body, subscribed once when the body is written
+     * @param elementClass class of a single element
+     * @param format       layout of the request body
+     * @param clazz        class of the response
+     * @return future of the decoded response
+     */
+    @NotNull
+    public <T, V> CompletableFuture<T> postStream(String url,
+                                                  @Nullable Map<String, String> params,
+                                                  Flow.Publisher<? extends V> elements,
+                                                  Class<V> elementClass,
+                                                  StreamFormat format,
+                                                  Class<T> clazz) {
+        PublisherRequestBody<V> body = PublisherRequestBody.of(elements, adapters.get(elementClass), format);
+        Request request = getRequestBuilder(url, null, null, params).post(body).build();
+        Call call = client.newCall(request);
+        // the upload lasts as long as the publisher takes, the write and read timeouts still apply
+        call.timeout().clearTimeout();
+        body.cancelWith(call);
+        CallFuture<T> future = new CallFuture<>(call, request, clazz, null);
+        enqueue(call, future);
+        return future;
+    }
+
+    /**
+     * GET request for a streamed response, which is decoded as JSON whatever the codecs accept.
+     */
+    private Request createStreamRequest(String url, @Nullable Map<String, String> params, StreamFormat format) {
+        return getRequestBuilder(url, null, null, params)
+                .header(ACCEPT, format == StreamFormat.NDJSON ? ClientMediaType.NDJSON.label : ClientMediaType.JSON.label)
+                .build();
+    }
+
+    /**
+     * Posts the elements as a JSON array, see {@link #postStream(String, Map, Flow.Publisher, Class, StreamFormat, Class)}.
+     */
+    @NotNull
+    public <T, V> CompletableFuture<T> postStream(String url, Flow.Publisher<? extends V> elements, Class<V> elementClass, Class<T> clazz) {
+        return postStream(url, null, elements, elementClass, StreamFormat.JSON_ARRAY, clazz);
+    }
+
+    // endregion
+
+    // region Files
+
+    /**
+     * Downloads the response body into a file, see {@link #download(String, Path, DownloadOptions)}.
+     */
+    public long download(@NotNull String url, @NotNull Path target) throws IOException, ResponseException {
+        return download(url, target, new DownloadOptions());
+    }
+
+    /**
+     * Streams the response body into a file without holding it in memory. It can resume a partial
+     * file or download ranges in parallel, see {@link DownloadOptions}.
+     *
+     * @return size of the file
+     * @throws ResponseException if the server answers with an error
+     */
+    public long download(@NotNull String url, @NotNull Path target, @NotNull DownloadOptions options) throws IOException, ResponseException {
+        Request request = createGetRequest(url, null, null, null);
+        return new FileDownloader(client, blockingExecutor, options).download(request, target);
+    }
+
+    public void upload(@NotNull String url, @NotNull Path source) throws IOException, ResponseException {
+        upload(url, source, null);
+    }
+
+    /**
+     * PUTs a file as the request body, streamed from the file channel into the socket buffer.
+     *
+     * @throws ResponseException if the server answers with an error
+     */
+    public void upload(@NotNull String url, @NotNull Path source, @Nullable ProgressListener listener) throws IOException, ResponseException {
+        Request request = getRequestBuilder(url, null, null, null)
+                .put(FileRequestBody.of(source, OCTET_STREAM, listener))
+                .build();
+        Call call = client.newCall(request);
+        // a large file may take longer than the call timeout, the write and read timeouts still apply
+        call.timeout().clearTimeout();
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful())
+                throw new ResponseException(response.message(), response.code());
+        }
+    }
+
+    // endregion
+
+    // region CallFuture
+
+    /**
+     * Future that cancels its call when it is cancelled.
+     * It is the callback of the call as well, so an async call allocates a single adapter.
+     */
+    private final class CallFuture<T> extends CompletableFuture<T> implements Callback {
+        private final Call call;
+        private final Request request;
+        private final Type type;
+        @Nullable
+        private final ObjectCache.Entry cached;
+
+        private CallFuture(Call call, Request request, Type type, @Nullable ObjectCache.Entry cached) {
+            this.call = call;
+            this.request = request;
+            this.type = type;
+            this.cached = cached;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            call.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+            completeExceptionally(e);
+        }
+
+        @Override
+        public void onResponse(@NotNull Call call, @NotNull Response response) {
+            SimpleClient.this.complete(this, request, type, response, cached);
+        }
+    }
+
+    // endregion
+
+    // region Builder
+
+    /**
+     * Builds a {@link SimpleClient} with a tuned connection pool and dispatcher.
+     * <p>
+     * Several clients can share one pool by passing the same {@link ConnectionPool}
+     * and {@link Dispatcher}, see {@link #shareResourcesWith(SimpleClient)}.
+     */
+    public static class Builder {
+        private final List<Interceptor> interceptors = new ArrayList<>();
+        private final Map<String, Integer> hostLimits = new HashMap<>();
+        private final Map<Type, JsonAdapter<?>> adapters = new LinkedHashMap<>();
+        private final List<JsonAdapter.Factory> adapterFactories = new ArrayList<>();
+        private final List<Type> warmUpTypes = new ArrayList<>();
+        private Duration callTimeout = Duration.ofSeconds(20);
+        private Duration readTimeout = Duration.ofSeconds(20);
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private int maxIdleConnections = 5;
+        private Duration keepAlive = Duration.ofMinutes(5);
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private boolean virtualThreads;
+        private boolean precomputeContentLength;
+        @Nullable
+        private ExecutorService executorService;
+        @Nullable
+        private ConnectionPool connectionPool;
+        @Nullable
+        private Dispatcher dispatcher;
+        @Nullable
+        private Cache httpCache;
+        @Nullable
+        private ObjectCache objectCache;
+        @Nullable
+        private RequestCoalescer coalescer;
+        @Nullable
+        private ClientMetrics metrics;
+        @Nullable
+        private RetryPolicy retryPolicy;
+        @Nullable
+        private CircuitBreakerInterceptor circuitBreaker;
+        @Nullable
+        private HedgePolicy hedgePolicy;
+        @Nullable
+        private CompressionPolicy compressionPolicy;
+        @Nullable
+        private LimitPolicy limitPolicy;
+        @Nullable
+        private TokenProvider tokenProvider;
+        private final List<LoadBalancer> loadBalancers = new ArrayList<>();
+        @Nullable
+        private HttpProtocol protocol;
+        private int maxStreamsPerConnection;
+        private final List<Codec> codecs = new ArrayList<>();
+        private Codec requestCodec = JsonCodec.INSTANCE;
+        private boolean lowGarbage;
+        @Nullable
+        private Duration pingInterval;
+        @Nullable
+        private Dns dns;
+        @Nullable
+        private WarmUpPolicy warmUpPolicy;
+
+        public Builder addInterceptor(@NotNull Interceptor interceptor) {
+            interceptors.add(interceptor);
+            return this;
+        }
+
+        public Builder callTimeout(@NotNull Duration callTimeout) {
+            this.callTimeout = callTimeout;
+            return this;
+        }
+
+        public Builder readTimeout(@NotNull Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public Builder connectTimeout(@NotNull Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param maxIdleConnections idle connections kept in the pool, ignored when a pool is shared
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0)
+                throw new IllegalArgumentException("maxIdleConnections < 0: " + maxIdleConnections);
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param keepAlive how long an idle connection stays in the pool, ignored when a pool is shared
+         */
+        public Builder keepAlive(@NotNull Duration keepAlive) {
+            if (keepAlive.isNegative() || keepAlive.isZero())
+                throw new IllegalArgumentException("keepAlive <= 0: " + keepAlive);
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @param maxRequests max concurrent async calls, ignored when a dispatcher is shared
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests < 1)
+                throw new IllegalArgumentException("maxRequests < 1: " + maxRequests);
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * @param maxRequestsPerHost default max concurrent calls for a single host
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost < 1)
+                throw new IllegalArgumentException("maxRequestsPerHost < 1: " + maxRequestsPerHost);
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Overrides {@link #maxRequestsPerHost(int)} for one host.
+         *
+         * @param host  host name as it appears in the url
+         * @param limit max concurrent calls for this host
+         */
+        public Builder maxRequestsForHost(@NotNull String host, int limit) {
+            if (limit < 1)
+                throw new IllegalArgumentException("limit < 1: " + limit);
+            hostLimits.put(host, limit);
+            return this;
+        }
+
+        /**
+         * @param executorService executor that runs async calls, ignored when a dispatcher is shared
+         */
+        public Builder executorService(@NotNull ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * Runs async calls and {@link #fanOut(List)} on virtual threads.
+         * Takes precedence over {@link #executorService(ExecutorService)},
+         * async calls keep the executor of a shared dispatcher.
+         *
+         * @throws IllegalStateException on build, if the running JVM can not create virtual threads
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Registers an adapter for a type, e.g. a generated adapter that skips reflection.
+         */
+        public <T> Builder registerAdapter(@NotNull Type type, @NotNull JsonAdapter<T> adapter) {
+            adapters.put(type, adapter);
+            return this;
+        }
+
+        /**
+         * Adds an adapter factory to Moshi, e.g. one that looks up generated adapters.
+         */
+        public Builder addAdapterFactory(@NotNull JsonAdapter.Factory factory) {
+            adapterFactories.add(factory);
+            return this;
+        }
+
+        /**
+         * Creates the adapters of the given types when the client is built instead of on the first request.
+         */
+        public Builder warmUpTypes(@NotNull Type... types) {
+            warmUpTypes.addAll(List.of(types));
+            return this;
+        }
+
+        /**
+         * POST bodies are streamed into the socket by default and sent chunked.
+         * When enabled they are encoded to UTF-8 bytes first so a Content-Length header is sent.
+         */
+        public Builder precomputeContentLength(boolean precomputeContentLength) {
+            this.precomputeContentLength = precomputeContentLength;
+            return this;
+        }
+
+        /**
+         * Enables OkHttp's disk cache, which honors {@code Cache-Control} and revalidates stale responses.
+         *
+         * @param directory    cache directory, must not be shared with another cache
+         * @param maxSizeBytes max size of the cache on disk
+         */
+        public Builder httpCache(@NotNull File directory, long maxSizeBytes) {
+            this.httpCache = new Cache(directory, maxSizeBytes);
+            return this;
+        }
+
+        /**
+         * Enables the in-memory cache of decoded GET responses, see {@link ObjectCache}.
+         *
+         * @param maxEntries max number of cached responses
+         * @param ttl        max lifetime of a cached response before it is revalidated
+         */
+        public Builder objectCache(int maxEntries, @NotNull Duration ttl) {
+            this.objectCache = new ObjectCache(maxEntries, ttl);
+            return this;
+        }
+
+        /**
+         * @param keyHeaders headers besides {@code Authorization} and {@code Cookie} that tell responses
+         *                   of the same URL apart, e.g. {@code Accept-Language}
+         */
+        public Builder objectCache(int maxEntries, @NotNull Duration ttl, @NotNull String... keyHeaders) {
+            this.objectCache = new ObjectCache(maxEntries, ttl, List.of(keyHeaders));
+            return this;
+        }
+
+        /**
+         * Merges identical GET requests in flight into one call, see {@link RequestCoalescer}.
+         *
+         * @param keyHeaders headers besides {@code Authorization} and {@code Cookie} that tell requests
+         *                   to the same URL apart, e.g. {@code Accept-Language}
+         */
+        public Builder coalesceRequests(@NotNull String... keyHeaders) {
+            this.coalescer = new RequestCoalescer(List.of(keyHeaders));
+            return this;
+        }
+
+        /**
+         * Reports DNS, connect, TLS, time to first byte, body read and decode timings of every call,
+         * e.g. to a {@link com.mertgolcu.metrics.HistogramMetrics}.
+         */
+        public Builder metrics(@NotNull ClientMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Retries idempotent requests with backoff, see {@link RetryPolicy#defaults()}.
+         */
+        public Builder retry(@NotNull RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Fails calls fast while their host is unhealthy, each attempt of a retry is checked on its own.
+         *
+         * @param failureThreshold failures in a row that open the breaker of a host
+         * @param openDuration     time the breaker stays open before a probe is let through
+         */
+        public Builder circuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+            this.circuitBreaker = new CircuitBreakerInterceptor(failureThreshold, openDuration);
+            return this;
+        }
+
+        /**
+         * Sends a second attempt of slow GETs, see {@link HedgePolicy#defaults()}.
+         */
+        public Builder hedge(@NotNull HedgePolicy hedgePolicy) {
+            this.hedgePolicy = hedgePolicy;
+            return this;
+        }
+
+        /**
+         * Compresses large request bodies and negotiates response encodings, see {@link CompressionPolicy#defaults()}.
+         * The threshold needs the body size, so POST bodies are only compressed when they report a length,
+         * e.g. with {@link #precomputeContentLength(boolean)} or {@link #lowGarbage(boolean)}.
+         */
+        public Builder compression(@NotNull CompressionPolicy compressionPolicy) {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * Limits the rate and concurrency of calls per host, every retry attempt takes its own permit.
+         */
+        public Builder limits(@NotNull LimitPolicy limitPolicy) {
+            this.limitPolicy = limitPolicy;
+            return this;
+        }
+
+        /**
+         * Authorizes every request with a bearer token, the first token is fetched when the client is built.
+         * A 401 triggers one shared refresh and the request is sent once more.
+         */
+        public Builder bearerAuth(@NotNull TokenProvider tokenProvider) {
+            this.tokenProvider = tokenProvider;
+            return this;
+        }
+
+        /**
+         * Spreads requests to {@code http://<service name>/...} over the endpoints of the balancer,
+         * can be called once per service.
+         */
+        public Builder loadBalancer(@NotNull LoadBalancer loadBalancer) {
+            loadBalancers.add(loadBalancer);
+            return this;
+        }
+
+        /**
+         * Limits the protocols the client speaks, {@link HttpProtocol#H2C} for cleartext HTTP/2 with prior knowledge.
+         * To multiplex many calls over one HTTP/2 connection raise {@link #maxRequestsPerHost(int)} as well.
+         */
+        public Builder protocol(@NotNull HttpProtocol protocol) {
+            this.protocol = protocol;
+            return this;
+        }
+
+        /**
+         * Caps the concurrent streams per HTTP/2 connection below the server limit, streams over it wait.
+         */
+        public Builder maxStreamsPerConnection(int maxStreamsPerConnection) {
+            if (maxStreamsPerConnection < 1)
+                throw new IllegalArgumentException("maxStreamsPerConnection < 1: " + maxStreamsPerConnection);
+            this.maxStreamsPerConnection = maxStreamsPerConnection;
+            return this;
+        }
+
+        /**
+         * Sends HTTP/2 pings at this interval, a connection that does not answer is closed.
+         */
+        public Builder pingInterval(@NotNull Duration pingInterval) {
+            this.pingInterval = pingInterval;
+            return this;
+        }
+
+        /**
+         * Accepts responses in the codec's media type, codecs added first are preferred in the Accept header.
+         * JSON stays available for responses of any other type.
+         */
+        public Builder addCodec(@NotNull Codec codec) {
+            if (!codecs.contains(codec))
+                codecs.add(codec);
+            return this;
+        }
+
+        /**
+         * Writes request bodies with the codec and accepts responses in it, see {@link #addCodec(Codec)}.
+         */
+        public Builder requestCodec(@NotNull Codec codec) {
+            this.requestCodec = codec;
+            return addCodec(codec);
+        }
+
+        /**
+         * Encodes request bodies through a per-thread scratch buffer, so a body leaves only its exact bytes
+         * behind, and sends them with a content length. Use it together with {@link SimpleClient#reusableCallback}
+         * and {@link SimpleClient#sendInto} on hot paths to keep steady-state garbage low.
+         */
+        public Builder lowGarbage(boolean lowGarbage) {
+            this.lowGarbage = lowGarbage;
+            return this;
+        }
+
+        /**
+         * Caches resolved host addresses for the given time, see {@link CachingDns}.
+         */
+        public Builder dnsCache(@NotNull Duration ttl) {
+            this.dns = new CachingDns(ttl);
+            return this;
+        }
+
+        /**
+         * Caches resolved host addresses, expired ones are used for at most {@code maxStale} while the
+         * resolver fails, see {@link CachingDns}.
+         */
+        public Builder dnsCache(@NotNull Duration ttl, @NotNull Duration maxStale) {
+            this.dns = new CachingDns(Dns.SYSTEM, ttl, maxStale);
+            return this;
+        }
+
+        public Builder dns(@NotNull Dns dns) {
+            this.dns = dns;
+            return this;
+        }
+
+        /**
+         * Warms the client up in the background as soon as it is built: hosts are resolved, connections opened
+         * and adapters exercised. {@link SimpleClient#getWarmUp()} completes with the report when it is ready.
+         */
+        public Builder warmUp(@NotNull WarmUpPolicy policy) {
+            this.warmUpPolicy = policy;
+            return this;
+        }
+
+        public Builder connectionPool(@NotNull ConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+            return this;
+        }
+
+        public Builder dispatcher(@NotNull Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * Reuses the connection pool and dispatcher of another client.
+         */
+        public Builder shareResourcesWith(@NotNull SimpleClient other) {
+            this.connectionPool = other.getConnectionPool();
+            this.dispatcher = other.getDispatcher();
+            return this;
+        }
+
+        @NotNull
+        public SimpleClient build() {
+            return new SimpleClient(this);
+        }
+    }
+
     // endregion
 
 }
@@ -0,0 +1,56 @@
+package com.mertgolcu.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * An immutable bearer token. The header value is built once so it can be set on every request as it is.
+ * Expiry is measured with {@link System#nanoTime()} so clock changes do not affect it.
+ */
+public final class AccessToken {
+
+    private final String value;
+    private final String headerValue;
+    private final long expiresAtNanos;
+    private final boolean expires;
+
+    /**
+     * @param value     the token
+     * @param expiresIn lifetime from now, null for a token that does not expire
+     */
+    public AccessToken(@NotNull String value, @Nullable Duration expiresIn) {
+        this.value = value;
+        this.headerValue = "Bearer " + value;
+        this.expires = expiresIn != null;
+        this.expiresAtNanos = expires ? System.nanoTime() + expiresIn.toNanos() : 0;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return value of the Authorization header
+     */
+    public String getHeaderValue() {
+        return headerValue;
+    }
+
+    public boolean isExpired() {
+        return expires && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * @return nanoseconds until the token expires, {@link Long#MAX_VALUE} if it does not expire
+     */
+    public long remainingNanos() {
+        return expires ? expiresAtNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessToken{expired=" + isExpired() + "}";
+    }
+}
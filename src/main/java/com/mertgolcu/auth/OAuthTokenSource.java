@@ -0,0 +1,81 @@
+package com.mertgolcu.auth;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import okhttp3.Call;
+import okhttp3.FormBody;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Fetches tokens with the OAuth 2.0 client credentials grant.
+ * <p>
+ * Use a call factory without the bearer interceptor, e.g. a plain {@code OkHttpClient},
+ * otherwise the token request would wait for itself.
+ */
+public class OAuthTokenSource implements TokenSource {
+
+    private static final JsonAdapter<TokenResponse> ADAPTER = new Moshi.Builder().build().adapter(TokenResponse.class);
+
+    private final Call.Factory callFactory;
+    private final Request request;
+
+    private OAuthTokenSource(Call.Factory callFactory, Request request) {
+        this.callFactory = callFactory;
+        this.request = request;
+    }
+
+    /**
+     * @param scope space separated scopes, null for the default scope of the client
+     */
+    @NotNull
+    @Contract("_, _, _, _, _ -> new")
+    public static OAuthTokenSource clientCredentials(@NotNull Call.Factory callFactory,
+                                                     @NotNull String tokenUrl,
+                                                     @NotNull String clientId,
+                                                     @NotNull String clientSecret,
+                                                     @Nullable String scope) {
+        FormBody.Builder form = new FormBody.Builder()
+                .add("grant_type", "client_credentials")
+                .add("client_id", clientId)
+                .add("client_secret", clientSecret);
+        if (scope != null)
+            form.add("scope", scope);
+        Request request = new Request.Builder()
+                .url(tokenUrl)
+                .header("Accept", "application/json")
+                .post(form.build())
+                .build();
+        return new OAuthTokenSource(callFactory, request);
+    }
+
+    @NotNull
+    @Override
+    public AccessToken fetch() throws IOException {
+        try (Response response = callFactory.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null)
+                throw new IOException("Token request failed with " + response.code());
+            TokenResponse token = ADAPTER.fromJson(body.source());
+            if (token == null || token.accessToken == null)
+                throw new IOException("Token response has no access_token");
+            return new AccessToken(token.accessToken,
+                    token.expiresIn != null ? Duration.ofSeconds(token.expiresIn) : null);
+        }
+    }
+
+    static final class TokenResponse {
+        @Json(name = "access_token")
+        String accessToken;
+        @Json(name = "expires_in")
+        Long expiresIn;
+    }
+}
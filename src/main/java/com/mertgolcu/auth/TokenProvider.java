@@ -0,0 +1,174 @@
+package com.mertgolcu.auth;
+
+import com.mertgolcu.exception.TokenRefreshException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the current {@link AccessToken} and refreshes it in the background before it expires.
+ * <p>
+ * The token is published through a volatile field, so reading it costs nothing on the request path.
+ * A refresh is single-flight: callers that find the same stale token, e.g. many concurrent 401s,
+ * share one fetch instead of each re-authenticating. Refreshes are timed by a shared daemon thread
+ * and the blocking fetches run on daemon threads of their own, so a slow token endpoint does not
+ * delay the refreshes of other providers.
+ * <p>
+ * A token is refreshed {@code refreshAhead} before it expires, but at most half of its lifetime ahead,
+ * and never sooner than a second after the last fetch, so short-lived tokens do not refresh in a loop.
+ */
+public class TokenProvider implements Closeable {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleClient token refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService FETCHER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleClient token fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MIN_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TokenSource source;
+    private final long refreshAheadNanos;
+    private final AtomicReference<CompletableFuture<AccessToken>> refreshing = new AtomicReference<>();
+    @Nullable
+    private volatile AccessToken token;
+    @Nullable
+    private volatile ScheduledFuture<?> scheduled;
+    private volatile boolean closed;
+
+    /**
+     * @param source       fetches new tokens
+     * @param refreshAhead how long before expiry the token is refreshed
+     */
+    public TokenProvider(@NotNull TokenSource source, @NotNull Duration refreshAhead) {
+        this.source = source;
+        this.refreshAheadNanos = refreshAhead.toNanos();
+    }
+
+    public TokenProvider(@NotNull TokenSource source) {
+        this(source, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Fetches the first token in the background, so the first request does not wait for it.
+     */
+    public CompletableFuture<AccessToken> prefetch() {
+        return refresh(null);
+    }
+
+    /**
+     * @return the current token, only waits for a fetch if there is no valid token
+     * @throws IOException if the token could not be fetched
+     */
+    @NotNull
+    public AccessToken getToken() throws IOException {
+        AccessToken current = token;
+        if (current != null && !current.isExpired())
+            return current;
+        return await(refresh(current));
+    }
+
+    /**
+     * Replaces a token the server rejected and waits for the new one.
+     *
+     * @param stale the token that was rejected
+     */
+    @NotNull
+    public AccessToken refreshToken(@Nullable AccessToken stale) throws IOException {
+        return await(refresh(stale));
+    }
+
+    /**
+     * Starts a refresh unless {@code stale} was already replaced or a refresh is running.
+     *
+     * @return future of a token newer than {@code stale}
+     */
+    public CompletableFuture<AccessToken> refresh(@Nullable AccessToken stale) {
+        while (true) {
+            AccessToken current = token;
+            if (current != null && current != stale && !current.isExpired())
+                return CompletableFuture.completedFuture(current);
+            CompletableFuture<AccessToken> running = refreshing.get();
+            if (running != null)
+                return running;
+            CompletableFuture<AccessToken> created = new CompletableFuture<>();
+            if (refreshing.compareAndSet(null, created)) {
+                FETCHER.execute(() -> fetch(created));
+                return created;
+            }
+        }
+    }
+
+    private void fetch(CompletableFuture<AccessToken> future) {
+        AccessToken fetched;
+        try {
+            fetched = source.fetch();
+        } catch (Exception e) {
+            refreshing.set(null);
+            future.completeExceptionally(e);
+            // keep trying while the old token is still valid
+            AccessToken current = token;
+            if (current != null && !current.isExpired())
+                schedule(current, Math.min(RETRY_DELAY_NANOS, current.remainingNanos()));
+            return;
+        }
+        // publish the token before the next refresh can start
+        token = fetched;
+        refreshing.set(null);
+        future.complete(fetched);
+        long lifetime = fetched.remainingNanos();
+        if (lifetime != Long.MAX_VALUE)
+            schedule(fetched, lifetime - Math.min(refreshAheadNanos, lifetime / 2));
+    }
+
+    private void schedule(AccessToken current, long delayNanos) {
+        if (closed)
+            return;
+        ScheduledFuture<?> previous = scheduled;
+        if (previous != null)
+            previous.cancel(false);
+        scheduled = SCHEDULER.schedule(() -> refresh(current), Math.max(MIN_REFRESH_INTERVAL_NANOS, delayNanos),
+                TimeUnit.NANOSECONDS);
+    }
+
+    private static AccessToken await(CompletableFuture<AccessToken> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a token");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw new TokenRefreshException("Token refresh failed: " + io.getMessage(), io);
+            throw new TokenRefreshException("Token refresh failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops background refreshes, the current token stays usable.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> current = scheduled;
+        if (current != null)
+            current.cancel(false);
+    }
+}
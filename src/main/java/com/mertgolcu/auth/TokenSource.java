@@ -0,0 +1,16 @@
+package com.mertgolcu.auth;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Fetches a new token, e.g. from an OAuth token endpoint, see {@link OAuthTokenSource}.
+ * It is only called by {@link TokenProvider}, never by more than one thread at a time.
+ */
+@FunctionalInterface
+public interface TokenSource {
+
+    @NotNull
+    AccessToken fetch() throws IOException;
+}
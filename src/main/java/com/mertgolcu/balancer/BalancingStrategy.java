@@ -0,0 +1,15 @@
+package com.mertgolcu.balancer;
+
+/**
+ * How {@link LoadBalancer} compares the two endpoints it samples for a call.
+ */
+public enum BalancingStrategy {
+    /**
+     * Fewer calls in flight wins.
+     */
+    LEAST_IN_FLIGHT,
+    /**
+     * Lower moving average of the latency, weighted by the calls in flight, wins.
+     */
+    EWMA
+}
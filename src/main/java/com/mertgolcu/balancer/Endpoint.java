@@ -0,0 +1,114 @@
+package com.mertgolcu.balancer;
+
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A replica of a service with its load and health. All state is updated lock-free.
+ */
+public final class Endpoint {
+
+    private static final double ALPHA = 0.3;
+
+    private final HttpUrl url;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+    private volatile boolean healthy = true;
+
+    Endpoint(@NotNull HttpUrl url) {
+        this.url = url;
+    }
+
+    public HttpUrl getUrl() {
+        return url;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return moving average of the latency until the response headers in nanoseconds
+     */
+    public double getLatencyEwmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+
+    /**
+     * @return false while the active health check fails or the endpoint is ejected for failures
+     */
+    public boolean isAvailable() {
+        if (ejected && System.nanoTime() - ejectedUntilNanos >= 0)
+            ejected = false;
+        return healthy && !ejected;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isEjected() {
+        return ejected && System.nanoTime() - ejectedUntilNanos < 0;
+    }
+
+    double cost(BalancingStrategy strategy) {
+        if (strategy == BalancingStrategy.LEAST_IN_FLIGHT)
+            return inFlight.get();
+        return (getLatencyEwmaNanos() + 1) * (inFlight.get() + 1);
+    }
+
+    void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        consecutiveFailures.set(0);
+        if (ejections.get() != 0)
+            ejections.set(0);
+        while (true) {
+            long current = ewmaBits.get();
+            double ewma = Double.longBitsToDouble(current);
+            double next = ewma == 0 ? latencyNanos : ewma + ALPHA * (latencyNanos - ewma);
+            if (ewmaBits.compareAndSet(current, Double.doubleToLongBits(next)))
+                return;
+        }
+    }
+
+    /**
+     * @return failures in a row including this one
+     */
+    int onFailure() {
+        inFlight.decrementAndGet();
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void onCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    void eject(long baseNanos, int maxMultiplier) {
+        int count = Math.min(ejections.incrementAndGet(), maxMultiplier);
+        consecutiveFailures.set(0);
+        ejectedUntilNanos = System.nanoTime() + baseNanos * count;
+        ejected = true;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+        if (healthy)
+            ejections.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "Endpoint{" + url + ", inFlight=" + inFlight.get() + ", available=" + isAvailable() + "}";
+    }
+}
@@ -0,0 +1,263 @@
+package com.mertgolcu.balancer;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads the calls to a logical service over its replicas.
+ * <p>
+ * Requests are sent to the service name as host, e.g. {@code http://orders/items}, and every call
+ * is sent to one of the endpoints: two random available endpoints are sampled and the one with the
+ * lower cost wins, see {@link BalancingStrategy}. An endpoint that fails {@code consecutiveFailures}
+ * times in a row is ejected for a while, longer for each ejection in a row, but never more than
+ * {@code maxEjectionPercent} of the endpoints at once. Optional active health checks take endpoints
+ * out of rotation until their health path answers with 2xx again. If no endpoint is available
+ * the calls are spread over all of them.
+ */
+public class LoadBalancer implements Closeable {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleClient health check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final String serviceName;
+    private final Endpoint[] endpoints;
+    private final BalancingStrategy strategy;
+    private final int consecutiveFailures;
+    private final long ejectionNanos;
+    private final int maxEjectionPercent;
+    @Nullable
+    private final String healthPath;
+    private final Duration healthInterval;
+    @Nullable
+    private volatile ScheduledFuture<?> healthCheck;
+
+    private LoadBalancer(Builder builder) {
+        if (builder.endpoints.isEmpty())
+            throw new IllegalArgumentException("No endpoints for " + builder.serviceName);
+        this.serviceName = builder.serviceName;
+        this.endpoints = builder.endpoints.toArray(new Endpoint[0]);
+        this.strategy = builder.strategy;
+        this.consecutiveFailures = builder.consecutiveFailures;
+        this.ejectionNanos = builder.ejectionDuration.toNanos();
+        this.maxEjectionPercent = builder.maxEjectionPercent;
+        this.healthPath = builder.healthPath;
+        this.healthInterval = builder.healthInterval;
+    }
+
+    @NotNull
+    @Contract("_ -> new")
+    public static Builder builder(@NotNull String serviceName) {
+        return new Builder(serviceName);
+    }
+
+    /**
+     * @return host name the requests to this service use
+     */
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+
+    /**
+     * Picks the endpoint for a call with power of two choices.
+     */
+    @NotNull
+    public Endpoint choose() {
+        if (endpoints.length == 1)
+            return endpoints[0];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Endpoint first = null;
+        Endpoint second = null;
+        // sampling is cheap while most endpoints are available, fall back to a scan otherwise
+        for (int i = 0; i < 4 && second == null; i++) {
+            Endpoint candidate = endpoints[random.nextInt(endpoints.length)];
+            if (candidate == first || !candidate.isAvailable())
+                continue;
+            if (first == null)
+                first = candidate;
+            else
+                second = candidate;
+        }
+        if (second == null) {
+            List<Endpoint> available = new ArrayList<>(endpoints.length);
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint.isAvailable())
+                    available.add(endpoint);
+            }
+            if (available.isEmpty())
+                available = List.of(endpoints);
+            if (available.size() == 1)
+                return available.get(0);
+            int a = random.nextInt(available.size());
+            int b = random.nextInt(available.size() - 1);
+            first = available.get(a);
+            second = available.get(b >= a ? b + 1 : b);
+        }
+        return first.cost(strategy) <= second.cost(strategy) ? first : second;
+    }
+
+    /**
+     * @return the url with the scheme, host and port of the endpoint
+     */
+    @NotNull
+    public HttpUrl resolve(@NotNull HttpUrl url, @NotNull Endpoint endpoint) {
+        HttpUrl target = endpoint.getUrl();
+        return url.newBuilder()
+                .scheme(target.scheme())
+                .host(target.host())
+                .port(target.port())
+                .build();
+    }
+
+    public void onStart(@NotNull Endpoint endpoint) {
+        endpoint.onStart();
+    }
+
+    public void onSuccess(@NotNull Endpoint endpoint, long latencyNanos) {
+        endpoint.onSuccess(latencyNanos);
+    }
+
+    public void onFailure(@NotNull Endpoint endpoint) {
+        if (endpoint.onFailure() >= consecutiveFailures && canEject())
+            endpoint.eject(ejectionNanos, MAX_EJECTION_MULTIPLIER);
+    }
+
+    /**
+     * Ends a call that was cancelled by the caller or rejected on the client side, it says nothing about the endpoint.
+     */
+    public void onCancelled(@NotNull Endpoint endpoint) {
+        endpoint.onCancelled();
+    }
+
+    private boolean canEject() {
+        int ejected = 1;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isEjected())
+                ejected++;
+        }
+        return ejected * 100 <= maxEjectionPercent * endpoints.length;
+    }
+
+    /**
+     * Starts the active health checks if a health path is set, probes are sent with {@code callFactory}.
+     */
+    public void start(@NotNull Call.Factory callFactory) {
+        if (healthPath == null || healthCheck != null)
+            return;
+        long interval = healthInterval.toNanos();
+        healthCheck = SCHEDULER.scheduleWithFixedDelay(() -> probe(callFactory), interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    private void probe(Call.Factory callFactory) {
+        for (Endpoint endpoint : endpoints) {
+            Request request = new Request.Builder()
+                    .url(endpoint.getUrl().newBuilder().encodedPath(healthPath).build())
+                    .build();
+            callFactory.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    endpoint.setHealthy(false);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    response.close();
+                    endpoint.setHealthy(response.isSuccessful());
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops the health checks.
+     */
+    @Override
+    public void close() {
+        ScheduledFuture<?> current = healthCheck;
+        if (current != null)
+            current.cancel(false);
+    }
+
+    public static class Builder {
+
+        private final String serviceName;
+        private final List<Endpoint> endpoints = new ArrayList<>();
+        private BalancingStrategy strategy = BalancingStrategy.EWMA;
+        private int consecutiveFailures = 5;
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+        private int maxEjectionPercent = 50;
+        @Nullable
+        private String healthPath;
+        private Duration healthInterval = Duration.ofSeconds(10);
+
+        private Builder(String serviceName) {
+            this.serviceName = serviceName;
+        }
+
+        /**
+         * @param urls base urls like {@code http://10.0.0.1:8080}, only scheme, host and port are used
+         */
+        public Builder endpoints(@NotNull String... urls) {
+            for (String url : urls) {
+                endpoints.add(new Endpoint(HttpUrl.get(url)));
+            }
+            return this;
+        }
+
+        public Builder strategy(@NotNull BalancingStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * @param consecutiveFailures failures in a row, IO errors or 5xx, that eject an endpoint
+         * @param ejectionDuration    first ejection time, multiplied by the number of ejections in a row
+         * @param maxEjectionPercent  max share of endpoints ejected at once
+         */
+        public Builder outlierDetection(int consecutiveFailures, @NotNull Duration ejectionDuration, int maxEjectionPercent) {
+            if (consecutiveFailures < 1)
+                throw new IllegalArgumentException("consecutiveFailures < 1: " + consecutiveFailures);
+            this.consecutiveFailures = consecutiveFailures;
+            this.ejectionDuration = ejectionDuration;
+            this.maxEjectionPercent = maxEjectionPercent;
+            return this;
+        }
+
+        /**
+         * Probes {@code path} of every endpoint each {@code interval}, a failed probe takes the endpoint out of rotation.
+         */
+        public Builder healthCheck(@NotNull String path, @NotNull Duration interval) {
+            this.healthPath = path.startsWith("/") ? path : "/" + path;
+            this.healthInterval = interval;
+            return this;
+        }
+
+        public LoadBalancer build() {
+            return new LoadBalancer(this);
+        }
+    }
+}
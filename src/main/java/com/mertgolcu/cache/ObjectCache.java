@@ -0,0 +1,232 @@
+package com.mertgolcu.cache;
+
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of decoded GET responses keyed by URL (with query parameters), response type and
+ * the credentials of the request. A fresh hit skips both the network round trip and the JSON decode.
+ * <p>
+ * The {@code Authorization} and {@code Cookie} headers, and any other key headers, are part of the key,
+ * so a response decoded for one caller is never served to a caller with other credentials. Headers that
+ * interceptors add are the same for every call of a client and are not needed in the key.
+ * <p>
+ * Entries live for the response's {@code max-age} or the configured TTL, whichever is lower.
+ * Expired entries that carry an {@code ETag} or {@code Last-Modified} are revalidated with a
+ * conditional request, a {@code 304} reuses the decoded value.
+ * The least recently used entry is evicted once {@code maxEntries} is reached.
+ */
+public class ObjectCache {
+
+    private static final List<String> CREDENTIAL_HEADERS = List.of("authorization", "cookie");
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final List<String> keyHeaders;
+    private final Map<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ObjectCache(int maxEntries, @NotNull Duration ttl) {
+        this(maxEntries, ttl, List.of());
+    }
+
+    /**
+     * @param keyHeaders headers besides the credentials whose values change the response, e.g. {@code Accept-Language}
+     */
+    public ObjectCache(int maxEntries, @NotNull Duration ttl, @NotNull List<String> keyHeaders) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries < 1: " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        Set<String> names = new LinkedHashSet<>(CREDENTIAL_HEADERS);
+        for (String name : keyHeaders) {
+            names.add(name.toLowerCase(Locale.ROOT));
+        }
+        this.keyHeaders = List.copyOf(names);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ObjectCache.Entry> eldest) {
+                if (size() <= ObjectCache.this.maxEntries)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the cached entry of the request, fresh or in need of revalidation, or null on a miss
+     */
+    @Nullable
+    public Entry lookup(@NotNull Request request, @NotNull Type type) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key(request, type));
+        }
+        if (entry != null && entry.isFresh()) {
+            hits.increment();
+            return entry;
+        }
+        // a stale entry still needs a round trip, a 304 is counted as a revalidation
+        misses.increment();
+        return entry != null && entry.canRevalidate() ? entry : null;
+    }
+
+    /**
+     * @return the request with validators of the stale entry, or the request itself
+     */
+    @NotNull
+    public Request conditional(@NotNull Request request, @Nullable Entry entry) {
+        if (entry == null || entry.isFresh() || !entry.canRevalidate())
+            return request;
+        Request.Builder builder = request.newBuilder();
+        if (entry.etag != null)
+            builder.header("If-None-Match", entry.etag);
+        if (entry.lastModified != null)
+            builder.header("If-Modified-Since", entry.lastModified);
+        return builder.build();
+    }
+
+    /**
+     * Extends the lifetime of an entry after a {@code 304} response.
+     */
+    public void revalidated(@NotNull Entry entry, @NotNull Response response) {
+        revalidations.increment();
+        store(entry.key, entry.value, response, entry);
+    }
+
+    /**
+     * Caches the decoded value of a successful response unless it is marked {@code no-store}.
+     */
+    public void put(@NotNull Request request, @NotNull Type type, @Nullable Object value, @NotNull Response response) {
+        if (value == null || !response.isSuccessful())
+            return;
+        store(key(request, type), value, response, null);
+    }
+
+    public void invalidate(@NotNull HttpUrl url) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.url.equals(url));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void store(Key key, Object value, Response response, @Nullable Entry previous) {
+        CacheControl cacheControl = response.cacheControl();
+        if (cacheControl.noStore())
+            return;
+        long lifetime = ttlNanos;
+        if (cacheControl.maxAgeSeconds() >= 0)
+            lifetime = Math.min(lifetime, Duration.ofSeconds(cacheControl.maxAgeSeconds()).toNanos());
+        else if (previous != null)
+            // a 304 without Cache-Control keeps the lifetime of the original response
+            lifetime = previous.lifetimeNanos;
+        String etag = response.header("ETag");
+        String lastModified = response.header("Last-Modified");
+        if (previous != null) {
+            // a 304 may leave the validators out
+            if (etag == null)
+                etag = previous.etag;
+            if (lastModified == null)
+                lastModified = previous.lastModified;
+        }
+        Entry entry = new Entry(key, value, etag, lastModified, lifetime);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private Key key(Request request, Type type) {
+        List<String> values = new ArrayList<>(keyHeaders.size());
+        for (String name : keyHeaders) {
+            List<String> headers = request.headers(name);
+            values.add(headers.isEmpty() ? null : String.join(",", headers));
+        }
+        return new Key(request.url(), type, values);
+    }
+
+    private record Key(HttpUrl url, Type type, List<String> headerValues) {
+    }
+
+    /**
+     * A decoded response with its validators.
+     */
+    public static final class Entry {
+        private final Key key;
+        private final Object value;
+        @Nullable
+        private final String etag;
+        @Nullable
+        private final String lastModified;
+        private final long lifetimeNanos;
+        private final long expiresAtNanos;
+
+        private Entry(Key key, Object value, @Nullable String etag, @Nullable String lastModified, long lifetimeNanos) {
+            this.key = key;
+            this.value = value;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.lifetimeNanos = lifetimeNanos;
+            this.expiresAtNanos = System.nanoTime() + lifetimeNanos;
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+
+        public boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T getValue() {
+            return (T) value;
+        }
+    }
+}
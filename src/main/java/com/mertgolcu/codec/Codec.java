@@ -0,0 +1,41 @@
+package com.mertgolcu.codec;
+
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.MediaType;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Wire format of request and response bodies, chosen by media type.
+ * <p>
+ * The Moshi adapter of the type still defines how objects map to fields, a codec only decides
+ * how those fields are written, so adapters registered on the client work with every codec.
+ * Codecs are stateless and shared between threads.
+ */
+public interface Codec {
+
+    /**
+     * @return media type of the bodies this codec writes, also sent in the Accept header
+     */
+    @NotNull
+    MediaType getMediaType();
+
+    /**
+     * @return true if a response with this Content-Type can be read by the codec
+     */
+    default boolean canDecode(@NotNull MediaType contentType) {
+        MediaType mediaType = getMediaType();
+        return mediaType.type().equalsIgnoreCase(contentType.type())
+                && mediaType.subtype().equalsIgnoreCase(contentType.subtype());
+    }
+
+    @Nullable
+    <T> T decode(@NotNull BufferedSource source, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException;
+
+    <T> void encode(@NotNull BufferedSink sink, T value, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException;
+}
@@ -0,0 +1,113 @@
+package com.mertgolcu.codec;
+
+import com.mertgolcu.util.ScratchBuffer;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Request body written by a {@link Codec}, the counterpart of {@link com.mertgolcu.json.JsonRequestBody}
+ * for other media types.
+ *
+ * @param <V> type of the body value
+ */
+public class CodecRequestBody<V> extends RequestBody {
+
+    private final Codec codec;
+    private final JsonAdapter<V> adapter;
+    private final V value;
+    @Nullable
+    private final Buffer encoded;
+    @Nullable
+    private final ByteString bytes;
+
+    private CodecRequestBody(Codec codec, JsonAdapter<V> adapter, V value, @Nullable Buffer encoded, @Nullable ByteString bytes) {
+        this.codec = codec;
+        this.adapter = adapter;
+        this.value = value;
+        this.encoded = encoded;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return a body that encodes the value while it is written to the socket
+     */
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static <V> CodecRequestBody<V> streaming(@NotNull Codec codec, @NotNull JsonAdapter<V> adapter, @NotNull V value) {
+        return new CodecRequestBody<>(codec, adapter, value, null, null);
+    }
+
+    /**
+     * @return a body that encodes the value now, so its content length is known
+     */
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static <V> CodecRequestBody<V> precomputed(@NotNull Codec codec, @NotNull JsonAdapter<V> adapter, @NotNull V value) {
+        Buffer buffer = new Buffer();
+        try {
+            codec.encode(buffer, value, value.getClass(), adapter);
+        } catch (IOException e) {
+            // a Buffer never throws
+            throw new AssertionError(e);
+        }
+        return new CodecRequestBody<>(codec, adapter, value, buffer, null);
+    }
+
+    /**
+     * @return a precomputed body that keeps exact-size bytes, see {@link com.mertgolcu.json.JsonRequestBody#pooled}
+     */
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static <V> CodecRequestBody<V> pooled(@NotNull Codec codec, @NotNull JsonAdapter<V> adapter, @NotNull V value) {
+        Buffer buffer = ScratchBuffer.get();
+        try {
+            codec.encode(buffer, value, value.getClass(), adapter);
+            return new CodecRequestBody<>(codec, adapter, value, null, buffer.readByteString());
+        } catch (IOException e) {
+            // a Buffer never throws
+            throw new AssertionError(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return codec.getMediaType();
+    }
+
+    @Override
+    public long contentLength() {
+        if (bytes != null)
+            return bytes.size();
+        return encoded != null ? encoded.size() : -1;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        if (bytes != null) {
+            sink.write(bytes);
+        } else if (encoded != null) {
+            // copy so the body can be written again on retries
+            encoded.copyTo(sink.getBuffer(), 0, encoded.size());
+            sink.emit();
+        } else {
+            codec.encode(sink, value, value.getClass(), adapter);
+        }
+    }
+
+    public V getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mertgolcu.codec;
+
+import okhttp3.MediaType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The codecs of a client, in order of preference, with JSON always available as the last resort.
+ * <p>
+ * Responses are decoded with the first codec that accepts their Content-Type, a response without a
+ * Content-Type or with an unknown one is read as JSON. Request bodies are written with the request codec.
+ */
+public final class Codecs {
+
+    private static final Codecs JSON_ONLY = new Codecs(List.of(), JsonCodec.INSTANCE);
+
+    private final Codec[] codecs;
+    private final Codec requestCodec;
+    @Nullable
+    private final String acceptHeader;
+
+    private Codecs(List<Codec> preferred, Codec requestCodec) {
+        List<Codec> all = new ArrayList<>(preferred);
+        if (!all.contains(JsonCodec.INSTANCE))
+            all.add(JsonCodec.INSTANCE);
+        this.codecs = all.toArray(new Codec[0]);
+        this.requestCodec = requestCodec;
+        this.acceptHeader = all.size() > 1 ? acceptHeader(all) : null;
+    }
+
+    /**
+     * @param preferred    codecs in order of preference, JSON is added last when missing
+     * @param requestCodec codec of request bodies
+     */
+    @NotNull
+    public static Codecs of(@NotNull List<Codec> preferred, @NotNull Codec requestCodec) {
+        if (preferred.isEmpty() && requestCodec == JsonCodec.INSTANCE)
+            return JSON_ONLY;
+        return new Codecs(preferred, requestCodec);
+    }
+
+    @NotNull
+    public static Codecs json() {
+        return JSON_ONLY;
+    }
+
+    /**
+     * @return the codec for a response with this Content-Type
+     */
+    @NotNull
+    public Codec forContentType(@Nullable MediaType contentType) {
+        if (contentType == null || codecs.length == 1)
+            return JsonCodec.INSTANCE;
+        for (Codec codec : codecs) {
+            if (codec.canDecode(contentType))
+                return codec;
+        }
+        return JsonCodec.INSTANCE;
+    }
+
+    @NotNull
+    public Codec getRequestCodec() {
+        return requestCodec;
+    }
+
+    /**
+     * @return Accept header listing the codecs with decreasing quality, null when only JSON is used
+     */
+    @Nullable
+    public String getAcceptHeader() {
+        return acceptHeader;
+    }
+
+    private static String acceptHeader(List<Codec> codecs) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < codecs.size(); i++) {
+            MediaType mediaType = codecs.get(i).getMediaType();
+            if (i > 0)
+                builder.append(", ");
+            builder.append(mediaType.type()).append('/').append(mediaType.subtype());
+            if (i > 0)
+                builder.append(";q=").append(Math.max(1, 10 - i) / 10.0);
+        }
+        return builder.toString();
+    }
+}
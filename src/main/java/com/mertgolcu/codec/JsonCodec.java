@@ -0,0 +1,49 @@
+package com.mertgolcu.codec;
+
+import com.mertgolcu.util.ClientMediaType;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.MediaType;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The default codec, reads and writes JSON with Moshi.
+ */
+public final class JsonCodec implements Codec {
+
+    public static final JsonCodec INSTANCE = new JsonCodec();
+
+    private JsonCodec() {
+    }
+
+    @NotNull
+    @Override
+    public MediaType getMediaType() {
+        return ClientMediaType.JSON.getMediaType();
+    }
+
+    /**
+     * Accepts application/json and structured suffixes like application/problem+json.
+     */
+    @Override
+    public boolean canDecode(@NotNull MediaType contentType) {
+        String subtype = contentType.subtype().toLowerCase();
+        return subtype.equals("json") || subtype.endsWith("+json");
+    }
+
+    @Nullable
+    @Override
+    public <T> T decode(@NotNull BufferedSource source, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException {
+        return adapter.fromJson(source);
+    }
+
+    @Override
+    public <T> void encode(@NotNull BufferedSink sink, T value, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException {
+        adapter.toJson(sink, value);
+    }
+}
@@ -0,0 +1,216 @@
+package com.mertgolcu.codec;
+
+import com.mertgolcu.util.ClientMediaType;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import okhttp3.MediaType;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Utf8;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MessagePack codec without an extra dependency.
+ * <p>
+ * Values go through the adapter's JSON value tree ({@link JsonAdapter#toJsonValue(Object)} and
+ * {@link JsonAdapter#fromJsonValue(Object)}), which is written to and read from the Okio sink and
+ * source directly. Binary values are exposed to adapters as base64 strings, extension types are not supported.
+ * <p>
+ * The value tree costs allocations, so this codec saves bytes on the wire rather than decode time,
+ * {@code DecodeBenchmark} compares it with JSON. A codec with its own generated readers can be
+ * plugged in through {@link Codec} where decode speed matters.
+ */
+public final class MessagePackCodec implements Codec {
+
+    public static final MessagePackCodec INSTANCE = new MessagePackCodec();
+
+    private MessagePackCodec() {
+    }
+
+    @NotNull
+    @Override
+    public MediaType getMediaType() {
+        return ClientMediaType.MSGPACK.getMediaType();
+    }
+
+    /**
+     * Accepts the common names application/x-msgpack, application/msgpack and application/vnd.msgpack.
+     */
+    @Override
+    public boolean canDecode(@NotNull MediaType contentType) {
+        String subtype = contentType.subtype().toLowerCase();
+        return subtype.equals("x-msgpack") || subtype.equals("msgpack") || subtype.equals("vnd.msgpack");
+    }
+
+    @Nullable
+    @Override
+    public <T> T decode(@NotNull BufferedSource source, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException {
+        return adapter.fromJsonValue(read(source));
+    }
+
+    @Override
+    public <T> void encode(@NotNull BufferedSink sink, T value, @NotNull Type type, @NotNull JsonAdapter<T> adapter) throws IOException {
+        write(sink, adapter.toJsonValue(value));
+    }
+
+    // region Writer
+
+    private static void write(BufferedSink sink, @Nullable Object value) throws IOException {
+        if (value == null) {
+            sink.writeByte(0xc0);
+        } else if (value instanceof Boolean bool) {
+            sink.writeByte(bool ? 0xc3 : 0xc2);
+        } else if (value instanceof String string) {
+            writeString(sink, string);
+        } else if (value instanceof Double || value instanceof Float) {
+            sink.writeByte(0xcb).writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Number number) {
+            writeLong(sink, number.longValue());
+        } else if (value instanceof Map<?, ?> map) {
+            writeHeader(sink, map.size(), 0x80, 0xde, 0xdf);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(sink, String.valueOf(entry.getKey()));
+                write(sink, entry.getValue());
+            }
+        } else if (value instanceof Collection<?> list) {
+            writeHeader(sink, list.size(), 0x90, 0xdc, 0xdd);
+            for (Object element : list) {
+                write(sink, element);
+            }
+        } else {
+            throw new JsonDataException("Can not write " + value.getClass() + " as MessagePack");
+        }
+    }
+
+    private static void writeLong(BufferedSink sink, long value) throws IOException {
+        if (value >= 0) {
+            if (value < 0x80)
+                sink.writeByte((int) value);
+            else if (value < 0x100)
+                sink.writeByte(0xcc).writeByte((int) value);
+            else if (value < 0x10000)
+                sink.writeByte(0xcd).writeShort((int) value);
+            else if (value < 0x100000000L)
+                sink.writeByte(0xce).writeInt((int) value);
+            else
+                sink.writeByte(0xcf).writeLong(value);
+        } else {
+            if (value >= -32)
+                sink.writeByte((int) value);
+            else if (value >= Byte.MIN_VALUE)
+                sink.writeByte(0xd0).writeByte((int) value);
+            else if (value >= Short.MIN_VALUE)
+                sink.writeByte(0xd1).writeShort((int) value);
+            else if (value >= Integer.MIN_VALUE)
+                sink.writeByte(0xd2).writeInt((int) value);
+            else
+                sink.writeByte(0xd3).writeLong(value);
+        }
+    }
+
+    private static void writeString(BufferedSink sink, String value) throws IOException {
+        long length = Utf8.size(value);
+        if (length < 32)
+            sink.writeByte(0xa0 | (int) length);
+        else if (length < 0x100)
+            sink.writeByte(0xd9).writeByte((int) length);
+        else if (length < 0x10000)
+            sink.writeByte(0xda).writeShort((int) length);
+        else
+            sink.writeByte(0xdb).writeInt((int) length);
+        sink.writeUtf8(value);
+    }
+
+    private static void writeHeader(BufferedSink sink, int size, int fix, int header16, int header32) throws IOException {
+        if (size < 16)
+            sink.writeByte(fix | size);
+        else if (size < 0x10000)
+            sink.writeByte(header16).writeShort(size);
+        else
+            sink.writeByte(header32).writeInt(size);
+    }
+
+    // endregion
+
+    // region Reader
+
+    @Nullable
+    private static Object read(BufferedSource source) throws IOException {
+        int b = source.readByte() & 0xff;
+        if (b <= 0x7f)
+            return (long) b;
+        if (b >= 0xe0)
+            return (long) (byte) b;
+        if (b <= 0x8f)
+            return readMap(source, b & 0x0f);
+        if (b <= 0x9f)
+            return readArray(source, b & 0x0f);
+        if (b <= 0xbf)
+            return source.readUtf8(b & 0x1f);
+        return switch (b) {
+            case 0xc0 -> null;
+            case 0xc2 -> false;
+            case 0xc3 -> true;
+            case 0xc4 -> source.readByteString(source.readByte() & 0xff).base64();
+            case 0xc5 -> source.readByteString(source.readShort() & 0xffff).base64();
+            case 0xc6 -> source.readByteString(source.readInt() & 0xffffffffL).base64();
+            case 0xca -> (double) Float.intBitsToFloat(source.readInt());
+            case 0xcb -> Double.longBitsToDouble(source.readLong());
+            case 0xcc -> (long) (source.readByte() & 0xff);
+            case 0xcd -> (long) (source.readShort() & 0xffff);
+            case 0xce -> source.readInt() & 0xffffffffL;
+            case 0xcf -> readUnsignedLong(source.readLong());
+            case 0xd0 -> (long) source.readByte();
+            case 0xd1 -> (long) source.readShort();
+            case 0xd2 -> (long) source.readInt();
+            case 0xd3 -> source.readLong();
+            case 0xd9 -> source.readUtf8(source.readByte() & 0xff);
+            case 0xda -> source.readUtf8(source.readShort() & 0xffff);
+            case 0xdb -> source.readUtf8(source.readInt() & 0xffffffffL);
+            case 0xdc -> readArray(source, source.readShort() & 0xffff);
+            case 0xdd -> readArray(source, readSize(source));
+            case 0xde -> readMap(source, source.readShort() & 0xffff);
+            case 0xdf -> readMap(source, readSize(source));
+            default -> throw new JsonDataException("Unsupported MessagePack type 0x" + Integer.toHexString(b));
+        };
+    }
+
+    private static Object readUnsignedLong(long value) {
+        return value >= 0 ? value : new BigInteger(Long.toUnsignedString(value));
+    }
+
+    private static int readSize(BufferedSource source) throws IOException {
+        int size = source.readInt();
+        if (size < 0)
+            throw new JsonDataException("MessagePack container too large");
+        return size;
+    }
+
+    private static List<Object> readArray(BufferedSource source, int size) throws IOException {
+        List<Object> list = new ArrayList<>(Math.min(size, 1024));
+        for (int i = 0; i < size; i++) {
+            list.add(read(source));
+        }
+        return list;
+    }
+
+    private static Map<String, Object> readMap(BufferedSource source, int size) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>(Math.min(size, 1024) * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(String.valueOf(read(source)), read(source));
+        }
+        return map;
+    }
+
+    // endregion
+}
@@ -0,0 +1,99 @@
+package com.mertgolcu.compression;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * When request bodies are compressed and which response encodings are accepted.
+ * <p>
+ * Only JSON, XML and text bodies are compressed. Binary bodies like octet-stream uploads are usually
+ * compressed already or too large to lose their {@code Content-Length}, and one-shot bodies are left as
+ * they are. The size is taken from the body's length, a body is never buffered to measure it.
+ */
+public class CompressionPolicy {
+
+    @Nullable
+    private final ContentCoding requestCoding;
+    private final long thresholdBytes;
+    private final boolean compressUnknownLength;
+    private final List<ContentCoding> acceptedCodings;
+
+    /**
+     * @param requestCoding         coding of request bodies, null to send them uncompressed
+     * @param thresholdBytes        bodies smaller than this are sent uncompressed
+     * @param compressUnknownLength whether streamed bodies, whose size is not known up front, are compressed
+     * @param acceptedCodings       response codings offered in {@code Accept-Encoding}, in order of preference
+     */
+    public CompressionPolicy(@Nullable ContentCoding requestCoding,
+                             long thresholdBytes,
+                             boolean compressUnknownLength,
+                             @NotNull List<ContentCoding> acceptedCodings) {
+        this.requestCoding = requestCoding;
+        this.thresholdBytes = thresholdBytes;
+        this.compressUnknownLength = compressUnknownLength;
+        this.acceptedCodings = List.copyOf(acceptedCodings);
+    }
+
+    /**
+     * @return gzip for bodies from 1 KiB, gzip and deflate for responses. Streamed bodies of unknown
+     * size are sent uncompressed, so small bodies are never compressed.
+     */
+    public static CompressionPolicy defaults() {
+        return new CompressionPolicy(ContentCodings.GZIP, 1024, false, List.of(ContentCodings.GZIP, ContentCodings.DEFLATE));
+    }
+
+    /**
+     * @return true if the body is compressed with the request coding
+     */
+    public boolean shouldCompress(@NotNull RequestBody body) throws IOException {
+        if (requestCoding == null || body.isOneShot() || !isCompressible(body.contentType()))
+            return false;
+        return shouldCompress(body.contentLength());
+    }
+
+    /**
+     * @param contentLength body size, -1 when unknown
+     */
+    public boolean shouldCompress(long contentLength) {
+        if (requestCoding == null)
+            return false;
+        if (contentLength < 0)
+            return compressUnknownLength;
+        return contentLength >= thresholdBytes;
+    }
+
+    private static boolean isCompressible(@Nullable MediaType type) {
+        if (type == null)
+            return false;
+        String subtype = type.subtype();
+        return "text".equals(type.type())
+                || subtype.equals("json") || subtype.endsWith("+json") || subtype.endsWith("ndjson")
+                || subtype.equals("xml") || subtype.endsWith("+xml");
+    }
+
+    @Nullable
+    public ContentCoding getRequestCoding() {
+        return requestCoding;
+    }
+
+    public List<ContentCoding> getAcceptedCodings() {
+        return acceptedCodings;
+    }
+
+    /**
+     * @return the accepted coding with this name, null if it is not accepted
+     */
+    @Nullable
+    public ContentCoding findAccepted(@NotNull String name) {
+        for (ContentCoding coding : acceptedCodings) {
+            if (coding.name().equalsIgnoreCase(name))
+                return coding;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mertgolcu.compression;
+
+import okio.Sink;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@code Content-Encoding} that compresses and decompresses while streaming.
+ * Built-in codings are in {@link ContentCodings}, others such as brotli or zstd can be plugged in.
+ */
+public interface ContentCoding {
+
+    /**
+     * @return token used in {@code Content-Encoding} and {@code Accept-Encoding}, e.g. {@code gzip}
+     */
+    @NotNull
+    String name();
+
+    /**
+     * @return a sink that compresses into {@code sink}, closing it closes {@code sink}
+     */
+    @NotNull
+    Sink encode(@NotNull Sink sink);
+
+    /**
+     * @return a source that decompresses {@code source}
+     */
+    @NotNull
+    Source decode(@NotNull Source source);
+}
@@ -0,0 +1,65 @@
+package com.mertgolcu.compression;
+
+import okio.DeflaterSink;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content codings backed by Okio and {@code java.util.zip}.
+ */
+public final class ContentCodings {
+
+    public static final ContentCoding GZIP = new ContentCoding() {
+        @NotNull
+        @Override
+        public String name() {
+            return "gzip";
+        }
+
+        @NotNull
+        @Override
+        public Sink encode(@NotNull Sink sink) {
+            return new GzipSink(sink);
+        }
+
+        @NotNull
+        @Override
+        public Source decode(@NotNull Source source) {
+            return new GzipSource(source);
+        }
+    };
+
+    /**
+     * HTTP {@code deflate}, zlib framed
+     */
+    public static final ContentCoding DEFLATE = new ContentCoding() {
+        @NotNull
+        @Override
+        public String name() {
+            return "deflate";
+        }
+
+        @NotNull
+        @Override
+        public Sink encode(@NotNull Sink sink) {
+            return new DeflaterSink(sink, new Deflater(Deflater.DEFAULT_COMPRESSION));
+        }
+
+        @NotNull
+        @Override
+        public Source decode(@NotNull Source source) {
+            return new InflaterSource(Okio.buffer(source), new Inflater());
+        }
+    };
+
+    private ContentCodings() {
+    }
+}
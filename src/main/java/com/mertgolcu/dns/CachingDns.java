@@ -0,0 +1,126 @@
+package com.mertgolcu.dns;
+
+import okhttp3.Dns;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps resolved addresses for a fixed time so connections to known hosts do not wait for the resolver.
+ * <p>
+ * When an entry expires one lookup refreshes it while the others keep using the old addresses.
+ * The old addresses are also used when the refresh fails, but only for {@code maxStale} after they
+ * expired. Later lookups wait for the resolver and fail with it, so a moved host is not dialed forever.
+ */
+public final class CachingDns implements Dns {
+
+    private final Dns delegate;
+    public static final Duration DEFAULT_MAX_STALE = Duration.ofMinutes(5);
+
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public CachingDns(@NotNull Duration ttl) {
+        this(Dns.SYSTEM, ttl);
+    }
+
+    public CachingDns(@NotNull Dns delegate, @NotNull Duration ttl) {
+        this(delegate, ttl, DEFAULT_MAX_STALE);
+    }
+
+    /**
+     * @param maxStale how long expired addresses are still used while they are refreshed or the resolver fails
+     */
+    public CachingDns(@NotNull Dns delegate, @NotNull Duration ttl, @NotNull Duration maxStale) {
+        if (ttl.isNegative())
+            throw new IllegalArgumentException("ttl must not be negative");
+        if (maxStale.isNegative())
+            throw new IllegalArgumentException("maxStale must not be negative");
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+    }
+
+    @NotNull
+    @Override
+    public List<InetAddress> lookup(@NotNull String hostname) throws UnknownHostException {
+        Entry entry = cache.get(hostname);
+        if (entry == null)
+            return resolve(hostname, null);
+        long now = System.nanoTime();
+        if (now - entry.expiresAtNanos < 0)
+            return entry.addresses;
+        boolean usable = now - entry.expiresAtNanos < maxStaleNanos;
+        boolean refresh = entry.refreshing.compareAndSet(false, true);
+        // another lookup refreshes the entry
+        if (!refresh && usable)
+            return entry.addresses;
+        try {
+            return resolve(hostname, usable ? entry : null);
+        } catch (UnknownHostException e) {
+            cache.remove(hostname, entry);
+            throw e;
+        } finally {
+            // a replaced entry is no longer read, a kept one can be refreshed again
+            if (refresh)
+                entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Resolves the host ahead of the first connection.
+     *
+     * @return addresses of the host
+     */
+    @NotNull
+    public List<InetAddress> prefetch(@NotNull String hostname) throws UnknownHostException {
+        return lookup(hostname);
+    }
+
+    public void invalidate(@NotNull String hostname) {
+        cache.remove(hostname);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @param stale addresses returned when the resolver fails, null to fail with it
+     */
+    private List<InetAddress> resolve(String hostname, @Nullable Entry stale) throws UnknownHostException {
+        try {
+            List<InetAddress> addresses = List.copyOf(delegate.lookup(hostname));
+            cache.put(hostname, new Entry(addresses, System.nanoTime() + ttlNanos));
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (stale == null)
+                throw e;
+            return stale.addresses;
+        }
+    }
+
+    private static final class Entry {
+
+        final List<InetAddress> addresses;
+        final long expiresAtNanos;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<InetAddress> addresses, long expiresAtNanos) {
+            this.addresses = addresses;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mertgolcu.exception;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of its host is open.
+ */
+public class CircuitOpenException extends ClientSideException {
+
+    private final String host;
+
+    public CircuitOpenException(String host) {
+        super("Circuit breaker is open for host " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mertgolcu.exception;
+
+import java.io.IOException;
+
+/**
+ * A call failed on the client before the request reached the server, e.g. because of a client side
+ * limit or a failed token refresh. It says nothing about the health of the server, so circuit breakers
+ * do not count it and it is not retried.
+ */
+public class ClientSideException extends IOException {
+
+    public ClientSideException(String message) {
+        super(message);
+    }
+
+    public ClientSideException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
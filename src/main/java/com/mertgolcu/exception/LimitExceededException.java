@@ -0,0 +1,18 @@
+package com.mertgolcu.exception;
+
+/**
+ * Thrown instead of sending a request when a client side limit of its host is exhausted.
+ */
+public class LimitExceededException extends ClientSideException {
+
+    private final String host;
+
+    public LimitExceededException(String host, String limit) {
+        super(limit + " exceeded for host " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,11 @@
+package com.mertgolcu.exception;
+
+/**
+ * Thrown instead of sending a request when no valid access token could be fetched.
+ */
+public class TokenRefreshException extends ClientSideException {
+
+    public TokenRefreshException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
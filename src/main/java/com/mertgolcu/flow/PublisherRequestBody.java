@@ -0,0 +1,218 @@
+package com.mertgolcu.flow;
+
+import com.mertgolcu.json.StreamFormat;
+import com.mertgolcu.util.ClientMediaType;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonWriter;
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body that writes the elements of a publisher as they are published.
+ * <p>
+ * At most {@code prefetch} elements are requested ahead of the socket, more are only requested
+ * once the written ones have been handed to the sink. A slow upload therefore slows the publisher
+ * down instead of queueing its elements in memory. The body is chunked and can only be written once.
+ * <p>
+ * The publisher is subscribed when the body is written, after the connection is ready. A hot publisher
+ * like {@link java.util.concurrent.SubmissionPublisher} drops what it submits before that.
+ * <p>
+ * While the publisher is idle the writing thread polls for elements. Bound to its call with
+ * {@link #cancelWith(Call)}, it stops waiting and cancels the subscription once the call is canceled.
+ *
+ * @param <V> element type
+ */
+public class PublisherRequestBody<V> extends RequestBody {
+
+    public static final int DEFAULT_PREFETCH = 32;
+    private static final long POLL_MILLIS = 50;
+
+    private final Flow.Publisher<? extends V> publisher;
+    private final JsonAdapter<V> adapter;
+    private final StreamFormat format;
+    private final int prefetch;
+    @Nullable
+    private volatile Call call;
+
+    private PublisherRequestBody(Flow.Publisher<? extends V> publisher, JsonAdapter<V> adapter, StreamFormat format, int prefetch) {
+        if (prefetch < 1)
+            throw new IllegalArgumentException("prefetch must be positive");
+        this.publisher = publisher;
+        this.adapter = adapter;
+        this.format = format;
+        this.prefetch = prefetch;
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static <V> PublisherRequestBody<V> of(@NotNull Flow.Publisher<? extends V> publisher,
+                                                 @NotNull JsonAdapter<V> adapter,
+                                                 @NotNull StreamFormat format) {
+        return new PublisherRequestBody<>(publisher, adapter, format, DEFAULT_PREFETCH);
+    }
+
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static <V> PublisherRequestBody<V> of(@NotNull Flow.Publisher<? extends V> publisher,
+                                                 @NotNull JsonAdapter<V> adapter,
+                                                 @NotNull StreamFormat format,
+                                                 int prefetch) {
+        return new PublisherRequestBody<>(publisher, adapter, format, prefetch);
+    }
+
+    /**
+     * Stops waiting for elements when the call is canceled. Without it a canceled call is only
+     * noticed when the next element is written.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public PublisherRequestBody<V> cancelWith(@NotNull Call call) {
+        this.call = call;
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return format == StreamFormat.NDJSON
+                ? ClientMediaType.NDJSON.getMediaType()
+                : ClientMediaType.JSON.getMediaType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        QueueSubscriber<V> subscriber = new QueueSubscriber<>(prefetch);
+        publisher.subscribe(subscriber);
+        JsonWriter writer = format == StreamFormat.JSON_ARRAY ? JsonWriter.of(sink) : null;
+        try {
+            if (writer != null)
+                writer.beginArray();
+            Object item;
+            while ((item = subscriber.take(sink, call)) != QueueSubscriber.COMPLETE) {
+                if (item instanceof Failure failure)
+                    throw new IOException("Request body publisher failed", failure.error);
+                @SuppressWarnings("unchecked")
+                V value = (V) item;
+                if (writer != null) {
+                    adapter.toJson(writer, value);
+                } else {
+                    adapter.toJson(sink, value);
+                    sink.writeByte('\n');
+                }
+            }
+            if (writer != null) {
+                writer.endArray();
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            subscriber.cancel();
+            throw e;
+        }
+    }
+
+    private record Failure(Throwable error) {
+    }
+
+    /**
+     * Hands the published elements to the writing thread through a queue that is never longer than
+     * the elements requested.
+     */
+    private static final class QueueSubscriber<V> implements Flow.Subscriber<V> {
+
+        static final Object COMPLETE = new Object();
+
+        private final BlockingQueue<Object> queue;
+        private final int prefetch;
+        // elements are requested again in batches once this many were taken
+        private final int limit;
+        private volatile Flow.Subscription subscription;
+        private int consumed;
+
+        QueueSubscriber(int prefetch) {
+            // one more slot for the completion or failure signal
+            this.queue = new ArrayBlockingQueue<>(prefetch + 1);
+            this.prefetch = prefetch;
+            this.limit = Math.max(1, prefetch - (prefetch >> 2));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(V item) {
+            if (!queue.offer(item))
+                onError(new IllegalStateException("Publisher sent more elements than requested"));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            queue.offer(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            queue.offer(COMPLETE);
+        }
+
+        /**
+         * Flushes what is written so far before it waits, so elements are not held back in the sink.
+         */
+        Object take(BufferedSink sink, @Nullable Call call) throws IOException {
+            Object item = queue.poll();
+            if (item == null) {
+                sink.flush();
+                try {
+                    while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                        if (call != null && call.isCanceled())
+                            throw new IOException("Canceled");
+                        // a deadline of the sink or an interrupt
+                        sink.timeout().throwIfReached();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the request body publisher");
+                }
+            }
+            if (item != COMPLETE && !(item instanceof Failure) && ++consumed == limit) {
+                consumed = 0;
+                subscription.request(limit);
+            }
+            return item;
+        }
+
+        void cancel() {
+            Flow.Subscription subscription = this.subscription;
+            if (subscription != null)
+                subscription.cancel();
+        }
+    }
+}
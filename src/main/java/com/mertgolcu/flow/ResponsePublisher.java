@@ -0,0 +1,158 @@
+package com.mertgolcu.flow;
+
+import com.mertgolcu.exception.ResponseException;
+import com.mertgolcu.json.ResponseIterator;
+import com.mertgolcu.json.StreamFormat;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the decoded elements of a streamed response as they are requested.
+ * <p>
+ * Elements are only read from the socket while the subscriber has outstanding demand. Without
+ * demand no thread waits on the response, the unread bytes fill the socket buffers and the
+ * server is slowed down by TCP flow control. Every subscription sends the request again.
+ * Reading and the signals to the subscriber run on the given executor, one task at a time.
+ * The call timeout of the client does not apply, so a slow subscriber is never cut off, only the
+ * read timeout bounds each read.
+ *
+ * @param <T> element type
+ */
+public class ResponsePublisher<T> implements Flow.Publisher<T> {
+
+    private final Call.Factory callFactory;
+    private final Request request;
+    private final JsonAdapter<T> adapter;
+    private final StreamFormat format;
+    private final Executor executor;
+
+    public ResponsePublisher(@NotNull Call.Factory callFactory,
+                             @NotNull Request request,
+                             @NotNull JsonAdapter<T> adapter,
+                             @NotNull StreamFormat format,
+                             @NotNull Executor executor) {
+        this.callFactory = callFactory;
+        this.request = request;
+        this.adapter = adapter;
+        this.format = format;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        ResponseSubscription subscription = new ResponseSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class ResponseSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        // counts the signals that arrived while a drain was running, so only one drain runs at a time
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Call call;
+        private ResponseIterator<T> iterator;
+        private boolean done;
+        private Throwable invalidRequest;
+
+        ResponseSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                invalidRequest = new IllegalArgumentException("Requested " + n + " elements, must be positive");
+            else
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // unblocks a drain that is waiting on the socket
+            Call call = this.call;
+            if (call != null)
+                call.cancel();
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done)
+                return;
+            if (cancelled) {
+                finish();
+                return;
+            }
+            try {
+                if (invalidRequest != null)
+                    throw invalidRequest;
+                if (demand.get() == 0)
+                    return;
+                if (iterator == null)
+                    iterator = open();
+                while (demand.get() > 0 && !cancelled) {
+                    if (!iterator.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    if (demand.get() != Long.MAX_VALUE)
+                        demand.decrementAndGet();
+                }
+                if (cancelled)
+                    finish();
+            } catch (Throwable e) {
+                finish();
+                if (!cancelled)
+                    subscriber.onError(e);
+            }
+        }
+
+        private ResponseIterator<T> open() throws Exception {
+            Call call = callFactory.newCall(request);
+            // the stream lasts as long as the subscriber takes, the read timeout still applies
+            call.timeout().clearTimeout();
+            this.call = call;
+            if (cancelled)
+                call.cancel();
+            Response response = call.execute();
+            if (!response.isSuccessful()) {
+                response.close();
+                throw new ResponseException(response.message(), response.code());
+            }
+            return new ResponseIterator<>(response, adapter, format);
+        }
+
+        private void finish() {
+            done = true;
+            if (iterator != null)
+                iterator.close();
+        }
+    }
+}
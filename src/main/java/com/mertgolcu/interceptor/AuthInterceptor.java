@@ -1,6 +1,7 @@
 package com.mertgolcu.interceptor;
 
 import com.mertgolcu.util.Constants;
+import kotlin.Pair;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -10,28 +11,27 @@ import java.io.IOException;
 
 public class AuthInterceptor implements Interceptor {
 
-    private String apiKey;
-    private String authKey;
+    // header name and value are published together, so a request never sees a name with the other key's value
+    private volatile Pair<String, String> header;
 
     public String getApiKey() {
-        return apiKey;
+        return header.getSecond();
     }
 
-    public void setApiKey(String apiKey) {
-        this.apiKey = apiKey;
+    public synchronized void setApiKey(String apiKey) {
+        this.header = new Pair<>(header.getFirst(), apiKey);
     }
 
     public String getAuthKey() {
-        return authKey;
+        return header.getFirst();
     }
 
-    public void setAuthKey(String authKey) {
-        this.authKey = authKey;
+    public synchronized void setAuthKey(String authKey) {
+        this.header = new Pair<>(authKey, header.getSecond());
     }
 
     public AuthInterceptor(String apiKey, String authKey) {
-        this.apiKey = apiKey;
-        this.authKey = authKey;
+        this.header = new Pair<>(authKey, apiKey);
     }
 
 
@@ -39,10 +39,11 @@ public class AuthInterceptor implements Interceptor {
     @Override
     public Response intercept(@NotNull Chain chain) throws IOException {
         Request request = chain.request();
+        Pair<String, String> header = this.header;
         request = request.newBuilder()
                 // API_KEY coming from application.properties
                 // or client defined
-                .addHeader(getAuthKey(), getApiKey())
+                .addHeader(header.getFirst(), header.getSecond())
                 .build();
         return chain.proceed(request);
     }
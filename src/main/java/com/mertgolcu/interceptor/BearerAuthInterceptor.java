@@ -0,0 +1,48 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.auth.AccessToken;
+import com.mertgolcu.auth.TokenProvider;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Sets the Authorization header from a {@link TokenProvider}.
+ * <p>
+ * On a 401 the rejected token is refreshed once, shared with every other call that got a 401
+ * for the same token, and the request is sent again with the new token.
+ */
+public class BearerAuthInterceptor implements Interceptor {
+
+    private static final String AUTHORIZATION = "Authorization";
+
+    private final TokenProvider tokenProvider;
+
+    public BearerAuthInterceptor(@NotNull TokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        AccessToken token = tokenProvider.getToken();
+        Response response = chain.proceed(authorize(request, token));
+        if (response.code() != HttpURLConnection.HTTP_UNAUTHORIZED)
+            return response;
+        RequestBody body = request.body();
+        if (body != null && body.isOneShot())
+            return response;
+        response.close();
+        return chain.proceed(authorize(request, tokenProvider.refreshToken(token)));
+    }
+
+    private static Request authorize(Request request, AccessToken token) {
+        return request.newBuilder().header(AUTHORIZATION, token.getHeaderValue()).build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.exception.CircuitOpenException;
+import com.mertgolcu.exception.ClientSideException;
+import com.mertgolcu.resilience.CircuitBreaker;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link CircuitBreaker} per host and fails fast with {@link CircuitOpenException}
+ * while it is open. IO failures and 5xx responses count as failures, a {@link ClientSideException}
+ * like a client side limit or a failed token refresh does not.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerInterceptor(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        CircuitBreaker breaker = breakers.computeIfAbsent(host, h -> new CircuitBreaker(failureThreshold, openDuration));
+        if (!breaker.tryAcquire())
+            throw new CircuitOpenException(host);
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (ClientSideException e) {
+            throw e;
+        } catch (IOException e) {
+            if (!chain.call().isCanceled())
+                breaker.onFailure();
+            throw e;
+        }
+        if (response.code() >= 500)
+            breaker.onFailure();
+        else
+            breaker.onSuccess();
+        return response;
+    }
+
+    /**
+     * @return the breaker of the host, null when no call was made to it yet
+     */
+    @Nullable
+    public CircuitBreaker getBreaker(String host) {
+        return breakers.get(host);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.compression.CompressionPolicy;
+import com.mertgolcu.compression.ContentCoding;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.StringJoiner;
+
+/**
+ * Compresses request bodies and negotiates response encodings, see {@link CompressionPolicy}.
+ * <p>
+ * Both directions stream through the coding, the payload is never buffered as a whole.
+ * Sending {@code Accept-Encoding} turns off OkHttp's transparent gzip, so responses are decoded here.
+ */
+public class CompressionInterceptor implements Interceptor {
+
+    private final CompressionPolicy policy;
+    private final String acceptEncoding;
+
+    public CompressionInterceptor(CompressionPolicy policy) {
+        this.policy = policy;
+        StringJoiner joiner = new StringJoiner(", ");
+        for (ContentCoding coding : policy.getAcceptedCodings()) {
+            joiner.add(coding.name());
+        }
+        this.acceptEncoding = joiner.toString();
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Request.Builder builder = null;
+        RequestBody body = request.body();
+        ContentCoding requestCoding = policy.getRequestCoding();
+        if (body != null && requestCoding != null && request.header("Content-Encoding") == null
+                && policy.shouldCompress(body)) {
+            builder = request.newBuilder()
+                    .header("Content-Encoding", requestCoding.name())
+                    .method(request.method(), new EncodedRequestBody(body, requestCoding));
+        }
+        boolean negotiate = !acceptEncoding.isEmpty() && request.header("Accept-Encoding") == null;
+        if (negotiate) {
+            if (builder == null)
+                builder = request.newBuilder();
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        Response response = chain.proceed(builder != null ? builder.build() : request);
+        if (!negotiate)
+            return response;
+        return decode(response);
+    }
+
+    private Response decode(Response response) {
+        String encoding = response.header("Content-Encoding");
+        ResponseBody body = response.body();
+        if (encoding == null || body == null || !hasBody(response))
+            return response;
+        ContentCoding coding = policy.findAccepted(encoding.trim());
+        if (coding == null)
+            return response;
+        ResponseBody decoded = ResponseBody.create(
+                Okio.buffer(coding.decode(body.source())),
+                body.contentType(),
+                -1);
+        return response.newBuilder()
+                .removeHeader("Content-Encoding")
+                .removeHeader("Content-Length")
+                .body(decoded)
+                .build();
+    }
+
+    private boolean hasBody(Response response) {
+        int code = response.code();
+        return !"HEAD".equals(response.request().method())
+                && code != HttpURLConnection.HTTP_NO_CONTENT
+                && code != HttpURLConnection.HTTP_NOT_MODIFIED;
+    }
+
+    private static class EncodedRequestBody extends RequestBody {
+        private final RequestBody body;
+        private final ContentCoding coding;
+
+        private EncodedRequestBody(RequestBody body, ContentCoding coding) {
+            this.body = body;
+            this.coding = coding;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            try (BufferedSink encoded = Okio.buffer(coding.encode(sink))) {
+                body.writeTo(encoded);
+            }
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return body.isOneShot();
+        }
+    }
+}
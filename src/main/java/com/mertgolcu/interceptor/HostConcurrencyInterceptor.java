@@ -0,0 +1,158 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.exception.LimitExceededException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of concurrent calls per host.
+ * <p>
+ * OkHttp's {@link okhttp3.Dispatcher} only knows a single per-host limit, so when
+ * some hosts need a different limit the dispatcher is raised to the highest one
+ * and this interceptor enforces the real limit of every host.
+ * <p>
+ * Async calls sent with {@link #enqueue(Call, Callback)} wait in a per-host queue until a permit is free
+ * and only then reach the dispatcher, so they neither park a dispatcher thread nor hold a
+ * {@code maxRequests} slot while their host is busy. The permit is held until the response headers arrive.
+ * Calls that reach the interceptor without a permit, sync calls and async calls enqueued directly on the
+ * OkHttp client, wait on their thread for at most the call timeout, or the read timeout without one,
+ * and then fail with {@link LimitExceededException}. Async calls waiting that way do hold a dispatcher thread.
+ */
+public class HostConcurrencyInterceptor implements Interceptor {
+
+    private final int defaultLimit;
+    private final Map<String, Integer> hostLimits;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+    // host whose permit an enqueued call holds, the interceptor does not take a second one
+    private final Map<Call, String> admitted = new ConcurrentHashMap<>();
+
+    public HostConcurrencyInterceptor(int defaultLimit, Map<String, Integer> hostLimits) {
+        this.defaultLimit = defaultLimit;
+        this.hostLimits = Map.copyOf(hostLimits);
+    }
+
+    public int getLimit(String host) {
+        return hostLimits.getOrDefault(host, defaultLimit);
+    }
+
+    /**
+     * Enqueues the call on the dispatcher as soon as its host has a free permit.
+     * A call canceled while it waits is still handed to the dispatcher, which fails it right away.
+     */
+    public void enqueue(@NotNull Call call, @NotNull Callback callback) {
+        String name = call.request().url().host();
+        Host host = host(name);
+        synchronized (host) {
+            if (!host.permits.tryAcquire()) {
+                host.waiting.add(new Pending(call, callback));
+                return;
+            }
+        }
+        dispatch(name, host, new Pending(call, callback));
+    }
+
+    /**
+     * @return async calls waiting for a permit of the host
+     */
+    public int getWaitingCount(@NotNull String host) {
+        Host state = hosts.get(host);
+        if (state == null)
+            return 0;
+        synchronized (state) {
+            return state.waiting.size();
+        }
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String name = chain.request().url().host();
+        // an enqueued call already holds the permit, unless a load balancer routed it to another host
+        if (name.equals(admitted.get(chain.call())))
+            return chain.proceed(chain.request());
+        Host host = host(name);
+        if (!Permits.acquire(host.permits, chain, "a host permit"))
+            throw new LimitExceededException(name, "Concurrency limit " + getLimit(name));
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            release(host);
+        }
+    }
+
+    private Host host(String name) {
+        Host host = hosts.get(name);
+        if (host == null)
+            host = hosts.computeIfAbsent(name, h -> new Host(getLimit(h)));
+        return host;
+    }
+
+    private void dispatch(String name, Host host, Pending pending) {
+        admitted.put(pending.call, name);
+        try {
+            enqueue(pending, host);
+        } catch (RuntimeException e) {
+            done(pending.call, host);
+            pending.callback.onFailure(pending.call, new IOException("Call could not be enqueued", e));
+        }
+    }
+
+    private void enqueue(Pending pending, Host host) {
+        pending.call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                done(call, host);
+                pending.callback.onFailure(call, e);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+                done(call, host);
+                pending.callback.onResponse(call, response);
+            }
+        });
+    }
+
+    private void done(Call call, Host host) {
+        admitted.remove(call);
+        release(host);
+    }
+
+    /**
+     * Hands the permit to the next waiting call, or returns it when none waits.
+     */
+    private void release(Host host) {
+        Pending next;
+        synchronized (host) {
+            next = host.waiting.poll();
+            if (next == null) {
+                host.permits.release();
+                return;
+            }
+        }
+        dispatch(next.call.request().url().host(), host, next);
+    }
+
+    private static final class Host {
+
+        final Semaphore permits;
+        final Queue<Pending> waiting = new ArrayDeque<>();
+
+        Host(int limit) {
+            this.permits = new Semaphore(limit);
+        }
+    }
+
+    private record Pending(Call call, Callback callback) {
+    }
+}
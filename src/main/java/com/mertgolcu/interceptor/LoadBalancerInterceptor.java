@@ -0,0 +1,67 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.balancer.Endpoint;
+import com.mertgolcu.balancer.LoadBalancer;
+import com.mertgolcu.exception.ClientSideException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends requests to a service name to one of its endpoints, see {@link LoadBalancer}.
+ * <p>
+ * It runs inside the retry interceptor so every attempt picks an endpoint again,
+ * and before the per-host interceptors so breakers and limits see the real endpoint.
+ * The latency until the response headers feeds the balancer, IO errors and 5xx count as failures.
+ * A {@link ClientSideException} is not held against the endpoint.
+ */
+public class LoadBalancerInterceptor implements Interceptor {
+
+    private final Map<String, LoadBalancer> balancers;
+
+    public LoadBalancerInterceptor(@NotNull List<LoadBalancer> balancers) {
+        Map<String, LoadBalancer> byName = new HashMap<>();
+        for (LoadBalancer balancer : balancers) {
+            byName.put(balancer.getServiceName(), balancer);
+        }
+        this.balancers = Map.copyOf(byName);
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        LoadBalancer balancer = balancers.get(request.url().host());
+        if (balancer == null)
+            return chain.proceed(request);
+        Endpoint endpoint = balancer.choose();
+        Request routed = request.newBuilder().url(balancer.resolve(request.url(), endpoint)).build();
+        balancer.onStart(endpoint);
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(routed);
+        } catch (ClientSideException e) {
+            // a client side limit, open breaker or failed token refresh says nothing about the endpoint
+            balancer.onCancelled(endpoint);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled())
+                balancer.onCancelled(endpoint);
+            else
+                balancer.onFailure(endpoint);
+            throw e;
+        }
+        if (response.code() >= 500)
+            balancer.onFailure(endpoint);
+        else
+            balancer.onSuccess(endpoint, System.nanoTime() - start);
+        return response;
+    }
+}
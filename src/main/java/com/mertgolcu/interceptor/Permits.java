@@ -0,0 +1,52 @@
+package com.mertgolcu.interceptor;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for a permit on behalf of a call without outliving it. Interceptors run on the thread of
+ * the call, so an unbounded wait would hold a dispatcher thread after the call was given up.
+ */
+final class Permits {
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private Permits() {
+    }
+
+    /**
+     * Waits at most for the call timeout, or the read timeout without one, and without either as long
+     * as the call runs. A canceled or timed out call stops waiting right away.
+     *
+     * @param waitingFor what the permit stands for, used in the error messages
+     * @return false if no permit was released in time
+     * @throws IOException if the call was canceled or the thread interrupted
+     */
+    static boolean acquire(Semaphore permits, Interceptor.Chain chain, String waitingFor) throws IOException {
+        if (permits.tryAcquire())
+            return true;
+        Call call = chain.call();
+        long timeout = call.timeout().timeoutNanos();
+        long maxWait = timeout > 0 ? timeout : TimeUnit.MILLISECONDS.toNanos(chain.readTimeoutMillis());
+        long deadline = System.nanoTime() + maxWait;
+        try {
+            // the call timeout cancels the call, polling notices it without a callback from OkHttp
+            while (!call.isCanceled()) {
+                long remaining = maxWait > 0 ? deadline - System.nanoTime() : POLL_NANOS;
+                if (remaining <= 0)
+                    return false;
+                if (permits.tryAcquire(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS))
+                    return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + waitingFor);
+        }
+        throw new IOException("Canceled while waiting for " + waitingFor);
+    }
+}
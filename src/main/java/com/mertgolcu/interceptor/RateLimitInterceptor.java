@@ -0,0 +1,115 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.exception.LimitExceededException;
+import com.mertgolcu.limit.AdaptiveConcurrencyLimiter;
+import com.mertgolcu.limit.LimitPolicy;
+import com.mertgolcu.limit.TokenBucket;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a {@link LimitPolicy} per host.
+ * <p>
+ * The rate limit is checked first, then a concurrency permit is taken and held until the
+ * response headers arrive. A call rejected for concurrency gives its rate permit back.
+ * The network latency of the exchange, from sending the request to receiving the headers,
+ * feeds the adaptive limit, so waits in later interceptors like a token refresh do not look
+ * like a slow backend. IO failures and 429/503 responses count as drops. Waiting blocks the
+ * calling thread, which is a dispatcher thread for async calls.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    private final LimitPolicy policy;
+    private final Map<String, Optional<TokenBucket>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Optional<AdaptiveConcurrencyLimiter>> limiters = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(@NotNull LimitPolicy policy) {
+        this.policy = policy;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        long deadline = System.nanoTime() + policy.getMaxWaitNanos();
+
+        TokenBucket bucket = buckets.computeIfAbsent(host, h -> Optional.ofNullable(policy.newTokenBucket(h))).orElse(null);
+        if (bucket != null) {
+            long wait = bucket.reserve(policy.getMaxWaitNanos());
+            if (wait < 0)
+                throw new LimitExceededException(host, "Rate limit");
+            sleep(wait);
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(host, h -> Optional.ofNullable(policy.newConcurrencyLimiter())).orElse(null);
+        if (limiter == null)
+            return chain.proceed(chain.request());
+        boolean acquired;
+        try {
+            acquired = limiter.acquire(deadline - System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // the request is not sent, its rate permit can be used by another call
+            if (bucket != null)
+                bucket.refund();
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedIOException("Interrupted while waiting for a concurrency permit");
+            throw new LimitExceededException(host, "Concurrency limit " + limiter.getLimit());
+        }
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled())
+                limiter.onIgnored();
+            else
+                limiter.onDropped();
+            throw e;
+        }
+        if (response.code() == 429 || response.code() == 503)
+            limiter.onDropped();
+        else
+            limiter.onSuccess(rttNanos(response, start));
+        return response;
+    }
+
+    /**
+     * @return the current concurrency limit of the host, -1 if it has none yet
+     */
+    public int getConcurrencyLimit(@NotNull String host) {
+        Optional<AdaptiveConcurrencyLimiter> limiter = limiters.get(host);
+        return limiter != null && limiter.isPresent() ? limiter.get().getLimit() : -1;
+    }
+
+    private static long rttNanos(Response response, long startNanos) {
+        long sent = response.sentRequestAtMillis();
+        long received = response.receivedResponseAtMillis();
+        if (sent <= 0 || received < sent)
+            return System.nanoTime() - startNanos;
+        // millisecond timestamps, a faster exchange counts as one millisecond
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, received - sent));
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0)
+            return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.exception.ClientSideException;
+import com.mertgolcu.resilience.RetryBudget;
+import com.mertgolcu.resilience.RetryPolicy;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries idempotent requests that fail with an {@link IOException} or a retryable status code,
+ * see {@link RetryPolicy}. A {@code Retry-After} header up to the max backoff is honored, a response asking
+ * for a longer wait is returned without retrying.
+ * A {@link ClientSideException} is not retried.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    private final RetryPolicy policy;
+
+    public RetryInterceptor(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!policy.isRetryable(request))
+            return chain.proceed(request);
+        RetryBudget budget = policy.getBudget();
+        if (budget != null)
+            budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            long backoff;
+            try {
+                Response response = chain.proceed(request);
+                if (!policy.isRetryable(response.code()))
+                    return response;
+                backoff = retryAfterNanos(response, attempt);
+                if (backoff < 0 || !canRetry(chain, attempt, budget))
+                    return response;
+                response.close();
+            } catch (ClientSideException e) {
+                // an open circuit, a client side limit or a failed token refresh would fail again
+                throw e;
+            } catch (IOException e) {
+                if (!canRetry(chain, attempt, budget))
+                    throw e;
+                backoff = policy.backoffNanos(attempt);
+            }
+            sleep(backoff);
+        }
+    }
+
+    private boolean canRetry(Chain chain, int attempt, RetryBudget budget) {
+        return attempt < policy.getMaxAttempts()
+                && !chain.call().isCanceled()
+                && (budget == null || budget.tryWithdraw());
+    }
+
+    /**
+     * @return the wait before the next attempt, -1 if the server asks for more than the max backoff
+     */
+    private long retryAfterNanos(Response response, int attempt) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null)
+            return policy.backoffNanos(attempt);
+        long nanos;
+        try {
+            nanos = TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            if (date == null)
+                return policy.backoffNanos(attempt);
+            nanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, date.getTime() - System.currentTimeMillis()));
+        }
+        return nanos <= policy.getMaxDelayNanos() ? Math.max(0, nanos) : -1;
+    }
+
+    private void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+}
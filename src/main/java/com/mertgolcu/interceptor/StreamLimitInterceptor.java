@@ -0,0 +1,154 @@
+package com.mertgolcu.interceptor;
+
+import com.mertgolcu.exception.LimitExceededException;
+import com.mertgolcu.metrics.ConnectionStreams;
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Network interceptor that counts the streams each connection carries and optionally caps them.
+ * <p>
+ * A stream is counted from the moment it is sent on a connection until its response body is closed.
+ * With a cap, streams over it wait before they are opened. The call is already bound to its connection
+ * here, so a stream waits at most for the call timeout, or the read timeout without one, and then fails
+ * with {@link LimitExceededException}. A cancelled or timed out call stops waiting right away.
+ * The server's own {@code SETTINGS_MAX_CONCURRENT_STREAMS} still applies on top of it.
+ */
+public class StreamLimitInterceptor implements Interceptor {
+
+    private final int maxStreams;
+    private final Map<Connection, Semaphore> streams = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxStreams max concurrent streams per connection, 0 to only count them
+     */
+    public StreamLimitInterceptor(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Connection connection = chain.connection();
+        if (connection == null)
+            return chain.proceed(chain.request());
+        Semaphore permits = streams.get(connection);
+        if (permits == null) {
+            purgeClosed();
+            permits = streams.computeIfAbsent(connection,
+                    c -> new Semaphore(maxStreams > 0 ? maxStreams : Integer.MAX_VALUE));
+        }
+        if (!Permits.acquire(permits, chain, "a stream"))
+            throw new LimitExceededException(connection.route().address().url().host(), "Stream limit " + maxStreams);
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            permits.release();
+            return response;
+        }
+        return response.newBuilder()
+                .body(new ReleasingBody(body, permits))
+                .build();
+    }
+
+    /**
+     * @return the connections that carried a stream and are still open
+     */
+    public List<ConnectionStreams> snapshot() {
+        purgeClosed();
+        List<ConnectionStreams> snapshot = new ArrayList<>(streams.size());
+        int limit = maxStreams > 0 ? maxStreams : Integer.MAX_VALUE;
+        for (Map.Entry<Connection, Semaphore> entry : streams.entrySet()) {
+            Connection connection = entry.getKey();
+            snapshot.add(new ConnectionStreams(connection.route().address().url().host(),
+                    connection.protocol(), limit - entry.getValue().availablePermits()));
+        }
+        return snapshot;
+    }
+
+    private void purgeClosed() {
+        streams.keySet().removeIf(connection -> connection.socket().isClosed());
+    }
+
+    /**
+     * Gives the stream back once, when the body is closed.
+     */
+    private static final class ReleasingBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+        @Nullable
+        private BufferedSource source;
+
+        ReleasingBody(ResponseBody delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NotNull
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            release();
+                        }
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true))
+                permits.release();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mertgolcu.json;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the {@link JsonAdapter} of every type the client reads or writes,
+ * so the hot path does a single map lookup instead of asking {@link Moshi} each time.
+ */
+public class AdapterRegistry {
+
+    private final Moshi moshi;
+    private final Map<Type, JsonAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    public AdapterRegistry(@NotNull Moshi moshi) {
+        this.moshi = moshi;
+    }
+
+    /**
+     * @return the cached adapter of the type, created on first use
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public <T> JsonAdapter<T> get(@NotNull Type type) {
+        JsonAdapter<?> adapter = adapters.get(type);
+        if (adapter == null)
+            adapter = adapters.computeIfAbsent(type, moshi::adapter);
+        return (JsonAdapter<T>) adapter;
+    }
+
+    /**
+     * Registers an adapter for the type, e.g. a generated one, replacing the cached one.
+     */
+    public <T> void register(@NotNull Type type, @NotNull JsonAdapter<T> adapter) {
+        adapters.put(type, adapter);
+    }
+
+    /**
+     * Creates the adapters of the given types ahead of the first request.
+     */
+    public void warmUp(@NotNull Type... types) {
+        for (Type type : types) {
+            get(type);
+        }
+    }
+
+    public boolean contains(@NotNull Type type) {
+        return adapters.containsKey(type);
+    }
+
+    public Moshi getMoshi() {
+        return moshi;
+    }
+}
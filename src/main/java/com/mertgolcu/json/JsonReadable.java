@@ -0,0 +1,19 @@
+package com.mertgolcu.json;
+
+import com.squareup.moshi.JsonReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * An object that reads its own fields from JSON, so one instance can be filled again for every
+ * response instead of allocating a new object, see {@link com.mertgolcu.SimpleClient#sendInto(okhttp3.Request, JsonReadable)}.
+ */
+public interface JsonReadable {
+
+    /**
+     * Overwrites the fields of this object with the JSON value at the reader's position.
+     * Fields missing from the JSON should be reset by the implementation.
+     */
+    void readJson(@NotNull JsonReader reader) throws IOException;
+}
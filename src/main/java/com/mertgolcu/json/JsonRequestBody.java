@@ -0,0 +1,115 @@
+package com.mertgolcu.json;
+
+import com.mertgolcu.util.ClientMediaType;
+import com.mertgolcu.util.ScratchBuffer;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Request body that writes JSON straight into the socket sink,
+ * without building an intermediate {@link String}.
+ * <p>
+ * A streaming body has no content length and is sent chunked.
+ * A precomputed body is encoded once into UTF-8 bytes so its length is known up front.
+ * A pooled body is precomputed through the thread's {@link ScratchBuffer}, keeping only the exact bytes.
+ *
+ * @param <V> type of the body value
+ */
+public class JsonRequestBody<V> extends RequestBody {
+
+    private final JsonAdapter<V> adapter;
+    private final V value;
+    @Nullable
+    private final Buffer encoded;
+    @Nullable
+    private final ByteString bytes;
+
+    private JsonRequestBody(JsonAdapter<V> adapter, V value, @Nullable Buffer encoded, @Nullable ByteString bytes) {
+        this.adapter = adapter;
+        this.value = value;
+        this.encoded = encoded;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return a body that serializes the value while it is written to the socket
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <V> JsonRequestBody<V> streaming(@NotNull JsonAdapter<V> adapter, V value) {
+        return new JsonRequestBody<>(adapter, value, null, null);
+    }
+
+    /**
+     * @return a body that serializes the value now, so its content length is known
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <V> JsonRequestBody<V> precomputed(@NotNull JsonAdapter<V> adapter, V value) {
+        Buffer buffer = new Buffer();
+        try {
+            adapter.toJson(buffer, value);
+        } catch (IOException e) {
+            // a Buffer never throws
+            throw new AssertionError(e);
+        }
+        return new JsonRequestBody<>(adapter, value, buffer, null);
+    }
+
+    /**
+     * @return a precomputed body that keeps exact-size bytes, the encoding segments go back to the pool
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <V> JsonRequestBody<V> pooled(@NotNull JsonAdapter<V> adapter, V value) {
+        Buffer buffer = ScratchBuffer.get();
+        try {
+            adapter.toJson(buffer, value);
+            return new JsonRequestBody<>(adapter, value, null, buffer.readByteString());
+        } catch (IOException e) {
+            // a Buffer never throws
+            throw new AssertionError(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return ClientMediaType.JSON.getMediaType();
+    }
+
+    @Override
+    public long contentLength() {
+        if (bytes != null)
+            return bytes.size();
+        return encoded != null ? encoded.size() : -1;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        if (bytes != null) {
+            sink.write(bytes);
+        } else if (encoded != null) {
+            // copy so the body can be written again on retries
+            encoded.copyTo(sink.getBuffer(), 0, encoded.size());
+            sink.emit();
+        } else {
+            adapter.toJson(sink, value);
+        }
+    }
+
+    public V getValue() {
+        return value;
+    }
+}
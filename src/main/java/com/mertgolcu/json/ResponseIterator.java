@@ -0,0 +1,85 @@
+package com.mertgolcu.json;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Decodes the elements of a response body one at a time while they are read from the socket,
+ * so only a single element is held in memory.
+ * <p>
+ * The response is closed once the last element is read. Callers that stop early must call {@link #close()}.
+ * Read failures are thrown as {@link UncheckedIOException}.
+ *
+ * @param <T> element type
+ */
+public class ResponseIterator<T> implements Iterator<T>, Closeable {
+
+    private final Response response;
+    private final JsonReader reader;
+    private final JsonAdapter<T> adapter;
+    private final StreamFormat format;
+    private boolean started;
+    private boolean finished;
+
+    public ResponseIterator(@NotNull Response response, @NotNull JsonAdapter<T> adapter, @NotNull StreamFormat format) {
+        this.response = response;
+        this.reader = JsonReader.of(Objects.requireNonNull(response.body()).source());
+        this.adapter = adapter;
+        this.format = format;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished)
+            return false;
+        try {
+            if (!started) {
+                started = true;
+                if (format == StreamFormat.JSON_ARRAY)
+                    reader.beginArray();
+                else
+                    // several top level values are only accepted by a lenient reader
+                    reader.setLenient(true);
+            }
+            boolean hasNext = format == StreamFormat.JSON_ARRAY
+                    ? reader.hasNext()
+                    : reader.peek() != JsonReader.Token.END_DOCUMENT;
+            if (!hasNext) {
+                if (format == StreamFormat.JSON_ARRAY)
+                    reader.endArray();
+                close();
+            }
+            return hasNext;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        try {
+            return adapter.fromJson(reader);
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        response.close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.mertgolcu.json;
+
+/**
+ * Layout of a response that is decoded one element at a time.
+ */
+public enum StreamFormat {
+    /**
+     * A single top level JSON array
+     */
+    JSON_ARRAY,
+    /**
+     * Newline delimited JSON, one value per line
+     */
+    NDJSON
+}
@@ -0,0 +1,85 @@
+package com.mertgolcu.json;
+
+import com.squareup.moshi.Types;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Captures a generic response type such as {@code List<Foo>}, which can not be written as a class literal.
+ * <pre>
+ * List&lt;Foo&gt; foos = client.get(url, new TypeReference&lt;List&lt;Foo&gt;&gt;() {});
+ * List&lt;Foo&gt; same = client.get(url, TypeReference.listOf(Foo.class));
+ * </pre>
+ *
+ * @param <T> the captured type
+ */
+public abstract class TypeReference<T> {
+
+    private final Type type;
+
+    protected TypeReference() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType parameterized))
+            throw new IllegalStateException("TypeReference must be created with a type argument");
+        this.type = parameterized.getActualTypeArguments()[0];
+    }
+
+    private TypeReference(Type type) {
+        this.type = type;
+    }
+
+    @NotNull
+    @Contract("_ -> new")
+    public static <E> TypeReference<List<E>> listOf(@NotNull Class<E> elementClass) {
+        return of(List.class, elementClass);
+    }
+
+    @NotNull
+    @Contract("_ -> new")
+    public static <E> TypeReference<Set<E>> setOf(@NotNull Class<E> elementClass) {
+        return of(Set.class, elementClass);
+    }
+
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <K, V> TypeReference<Map<K, V>> mapOf(@NotNull Class<K> keyClass, @NotNull Class<V> valueClass) {
+        return of(Map.class, keyClass, valueClass);
+    }
+
+    /**
+     * @param rawType       generic class, e.g. {@code List.class}
+     * @param typeArguments its type arguments
+     * @return reference to the parameterized type, the caller is responsible for the type argument
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <T> TypeReference<T> of(@NotNull Class<?> rawType, @NotNull Type... typeArguments) {
+        return new TypeReference<>(Types.newParameterizedType(rawType, typeArguments)) {
+        };
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TypeReference<?> other && Types.equals(type, other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return type.getTypeName();
+    }
+}
@@ -0,0 +1,210 @@
+package com.mertgolcu.limit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that adapts to the backend with additive increase and multiplicative decrease.
+ * <p>
+ * The limit grows by about one per round trip while the smoothed latency stays within {@code tolerance}
+ * times the baseline, and shrinks by {@code backoffRatio} on a drop (an error, a 429/503, or a smoothed
+ * latency above that bound). The baseline is the lowest smoothed latency of the current and the
+ * previous {@code baselineWindow}, so a single fast response does not lower it and it follows the
+ * backend when its normal latency changes. The limit shrinks
+ * at most once per smoothed round trip, the drops of one overloaded round trip count as one.
+ * Permits are counted with compare-and-set. Releasing a permit only takes a lock when callers wait for one.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.1;
+    // samples before the smoothed latency is trusted, about the memory of the average
+    private static final int WARM_UP_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final long windowNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowMinRtt = new AtomicLong(Long.MAX_VALUE);
+    private volatile long previousWindowMinRtt = Long.MAX_VALUE;
+    private final AtomicLong smoothedRttBits = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicInteger samples = new AtomicInteger();
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+    private final Object waiters = new Object();
+    // callers blocked in acquire, releases only take the monitor while there are any
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * @param initialLimit starting limit
+     * @param minLimit     lowest limit
+     * @param maxLimit     highest limit
+     * @param backoffRatio factor applied to the limit on a drop, e.g. 0.9
+     * @param tolerance    smoothed latency above {@code tolerance * baseline} counts as a drop, e.g. 2.0
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, tolerance, Duration.ofSeconds(10));
+    }
+
+    /**
+     * @param baselineWindow how long the lowest smoothed latency stays the baseline, it is forgotten after two windows
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                                      Duration baselineWindow) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        if (baselineWindow.isNegative() || baselineWindow.isZero())
+            throw new IllegalArgumentException("baselineWindow must be positive");
+        this.windowNanos = baselineWindow.toNanos();
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public static AdaptiveConcurrencyLimiter defaults() {
+        return new AdaptiveConcurrencyLimiter(20, 1, 1000, 0.9, 2.0);
+    }
+
+    /**
+     * @param maxWaitNanos how long to wait for a permit, 0 to fail right away
+     * @return true if a permit was acquired, it must be given back with one of the on* methods
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean acquire(long maxWaitNanos) throws InterruptedException {
+        if (tryAcquire())
+            return true;
+        if (maxWaitNanos <= 0)
+            return false;
+        long deadline = System.nanoTime() + maxWaitNanos;
+        synchronized (waiters) {
+            // registered before the permit is checked again, so a release after the check sees the waiter
+            waiting.incrementAndGet();
+            try {
+                while (!tryAcquire()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0)
+                        return false;
+                    TimeUnit.NANOSECONDS.timedWait(waiters, remaining);
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Releases a permit of a call that completed normally.
+     */
+    public void onSuccess(long rttNanos) {
+        double smoothed = updateSmoothedRtt(rttNanos);
+        if (samples.get() < WARM_UP_SAMPLES && samples.incrementAndGet() <= WARM_UP_SAMPLES) {
+            release();
+            return;
+        }
+        long baseline = updateBaseline((long) smoothed);
+        if (smoothed > tolerance * baseline) {
+            onDropped();
+            return;
+        }
+        // only grow when the limit is actually used
+        if (inFlight.get() * 2 >= getLimit())
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+        release();
+    }
+
+    /**
+     * Releases a permit of a call that failed or was rejected by the backend.
+     */
+    public void onDropped() {
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last >= (long) getSmoothedRttNanos() && lastDecrease.compareAndSet(last, now))
+            updateLimit(limit -> Math.max(minLimit, limit * backoffRatio));
+        release();
+    }
+
+    /**
+     * Releases a permit without changing the limit, e.g. for a cancelled call.
+     */
+    public void onIgnored() {
+        release();
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return lowest smoothed latency of the current and the previous window, {@link Long#MAX_VALUE} before the first one
+     */
+    public long getBaselineRttNanos() {
+        return Math.min(windowMinRtt.get(), previousWindowMinRtt);
+    }
+
+    public double getSmoothedRttNanos() {
+        return Double.longBitsToDouble(smoothedRttBits.get());
+    }
+
+    private long updateBaseline(long rttNanos) {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now))
+            previousWindowMinRtt = windowMinRtt.getAndSet(rttNanos);
+        long min = windowMinRtt.get();
+        while (rttNanos < min && !windowMinRtt.compareAndSet(min, rttNanos)) {
+            min = windowMinRtt.get();
+        }
+        return getBaselineRttNanos();
+    }
+
+    private double updateSmoothedRtt(long rttNanos) {
+        while (true) {
+            long current = smoothedRttBits.get();
+            double smoothed = Double.longBitsToDouble(current);
+            double next = smoothed == 0 ? rttNanos : smoothed + SMOOTHING * (rttNanos - smoothed);
+            if (smoothedRttBits.compareAndSet(current, Double.doubleToLongBits(next)))
+                return next;
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (waiting.get() == 0)
+            return;
+        synchronized (waiters) {
+            waiters.notify();
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        while (true) {
+            long current = limitBits.get();
+            double next = update.applyAsDouble(Double.longBitsToDouble(current));
+            if (limitBits.compareAndSet(current, Double.doubleToLongBits(next)))
+                return;
+        }
+    }
+}
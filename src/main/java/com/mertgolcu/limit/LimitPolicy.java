@@ -0,0 +1,103 @@
+package com.mertgolcu.limit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Client side limits per host: a request rate and an adaptive concurrency limit.
+ * <p>
+ * A call over a limit waits up to {@link #maxWait(Duration)} for a permit and fails with
+ * {@link com.mertgolcu.exception.LimitExceededException} after that. With a zero wait,
+ * which is the default, calls over the limit are rejected right away.
+ * The client keeps a copy of the policy, later changes do not affect it.
+ */
+public class LimitPolicy {
+
+    @Nullable
+    private Rate defaultRate;
+    private final Map<String, Rate> hostRates = new HashMap<>();
+    @Nullable
+    private Supplier<AdaptiveConcurrencyLimiter> concurrencyLimiter;
+    private long maxWaitNanos;
+
+    /**
+     * Rate limit of hosts without their own rate.
+     */
+    public LimitPolicy rate(double permitsPerSecond, int burst) {
+        this.defaultRate = new Rate(permitsPerSecond, burst);
+        return this;
+    }
+
+    public LimitPolicy rate(@NotNull String host, double permitsPerSecond, int burst) {
+        hostRates.put(host, new Rate(permitsPerSecond, burst));
+        return this;
+    }
+
+    /**
+     * Gives every host its own adaptive concurrency limiter created by {@code factory}.
+     */
+    public LimitPolicy adaptiveConcurrency(@NotNull Supplier<AdaptiveConcurrencyLimiter> factory) {
+        this.concurrencyLimiter = factory;
+        return this;
+    }
+
+    public LimitPolicy adaptiveConcurrency() {
+        return adaptiveConcurrency(AdaptiveConcurrencyLimiter::defaults);
+    }
+
+    public LimitPolicy maxWait(@NotNull Duration maxWait) {
+        if (maxWait.isNegative())
+            throw new IllegalArgumentException("maxWait must not be negative");
+        this.maxWaitNanos = maxWait.toNanos();
+        return this;
+    }
+
+    /**
+     * @return a policy with the same limits that is not affected by later changes of this one
+     */
+    @NotNull
+    public LimitPolicy copy() {
+        LimitPolicy copy = new LimitPolicy();
+        copy.defaultRate = defaultRate;
+        copy.hostRates.putAll(hostRates);
+        copy.concurrencyLimiter = concurrencyLimiter;
+        copy.maxWaitNanos = maxWaitNanos;
+        return copy;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * @return a new bucket for the host, null if the host has no rate limit
+     */
+    @Nullable
+    public TokenBucket newTokenBucket(@NotNull String host) {
+        Rate rate = hostRates.getOrDefault(host, defaultRate);
+        return rate != null ? new TokenBucket(rate.permitsPerSecond(), rate.burst()) : null;
+    }
+
+    /**
+     * @return a new limiter for a host, null if concurrency is not limited
+     */
+    @Nullable
+    public AdaptiveConcurrencyLimiter newConcurrencyLimiter() {
+        return concurrencyLimiter != null ? concurrencyLimiter.get() : null;
+    }
+
+    private record Rate(double permitsPerSecond, int burst) {
+
+        Rate {
+            if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond))
+                throw new IllegalArgumentException("permitsPerSecond must be positive and finite: " + permitsPerSecond);
+            if (burst < 1)
+                throw new IllegalArgumentException("burst < 1: " + burst);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mertgolcu.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm.
+ * <p>
+ * Instead of a token count it keeps the theoretical arrival time of the next permit,
+ * so acquiring is a single compare-and-set and no refill thread is needed.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFree;
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            permits that can be taken at once after an idle period
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0)
+            throw new IllegalArgumentException("permitsPerSecond <= 0: " + permitsPerSecond);
+        if (burst < 1)
+            throw new IllegalArgumentException("burst < 1: " + burst);
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = (burst - 1) * intervalNanos;
+        this.nextFree = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * Reserves a permit if one is free within {@code maxWaitNanos}.
+     *
+     * @return nanoseconds the caller has to wait before using the permit, or -1 if none was reserved
+     */
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFree.get();
+            long arrival = current - now < -burstNanos ? now - burstNanos : current;
+            long wait = Math.max(0, arrival - now);
+            if (wait > maxWaitNanos)
+                return -1;
+            if (nextFree.compareAndSet(current, arrival + intervalNanos))
+                return wait;
+        }
+    }
+
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * Gives back a reserved permit that was not used, e.g. because another limit rejected the call.
+     */
+    public void refund() {
+        nextFree.addAndGet(-intervalNanos);
+    }
+}
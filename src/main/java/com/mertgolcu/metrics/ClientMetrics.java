@@ -0,0 +1,33 @@
+package com.mertgolcu.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives timings and sizes of every call made through {@link com.mertgolcu.SimpleClient}.
+ * <p>
+ * Methods are called on the request threads, implementations must be thread safe and cheap.
+ */
+public interface ClientMetrics {
+
+    /**
+     * @param host  target host
+     * @param phase timed part of the call
+     * @param nanos duration in nanoseconds
+     */
+    void record(@NotNull String host, @NotNull Phase phase, long nanos);
+
+    /**
+     * @param host          target host
+     * @param requestBytes  bytes of the request body
+     * @param responseBytes bytes of the response body
+     */
+    default void recordBytes(@NotNull String host, long requestBytes, long responseBytes) {
+    }
+
+    /**
+     * @param host  target host
+     * @param error cause of the failed call or decode
+     */
+    default void recordFailure(@NotNull String host, @NotNull Throwable error) {
+    }
+}
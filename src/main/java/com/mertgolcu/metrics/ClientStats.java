@@ -0,0 +1,12 @@
+package com.mertgolcu.metrics;
+
+/**
+ * Snapshot of the connection pool and dispatcher usage of a client.
+ *
+ * @param connections     open connections in the pool
+ * @param idleConnections idle connections in the pool
+ * @param runningCalls    calls running now, sync and async
+ * @param queuedCalls     async calls waiting for a dispatcher slot
+ */
+public record ClientStats(int connections, int idleConnections, int runningCalls, int queuedCalls) {
+}
@@ -0,0 +1,13 @@
+package com.mertgolcu.metrics;
+
+import okhttp3.Protocol;
+
+/**
+ * Snapshot of one pooled connection and the calls it carries.
+ *
+ * @param host          host of the route, the address that was connected to
+ * @param protocol      negotiated protocol
+ * @param activeStreams calls using the connection now, more than one only for HTTP/2
+ */
+public record ConnectionStreams(String host, Protocol protocol, int activeStreams) {
+}
@@ -0,0 +1,83 @@
+package com.mertgolcu.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link ClientMetrics} keeping a {@link LatencyHistogram} per host and phase.
+ * Recording is lock-free, only the first call to a new host allocates.
+ */
+public class HistogramMetrics implements ClientMetrics {
+
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(@NotNull String host, @NotNull Phase phase, long nanos) {
+        host(host).histograms[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordBytes(@NotNull String host, long requestBytes, long responseBytes) {
+        HostMetrics metrics = host(host);
+        metrics.requestBytes.add(requestBytes);
+        metrics.responseBytes.add(responseBytes);
+    }
+
+    @Override
+    public void recordFailure(@NotNull String host, @NotNull Throwable error) {
+        host(host).failures.increment();
+    }
+
+    public Set<String> getHosts() {
+        return hosts.keySet();
+    }
+
+    /**
+     * @return the metrics of the host, null when no call was made to it yet
+     */
+    @Nullable
+    public HostMetrics getHost(@NotNull String host) {
+        return hosts.get(host);
+    }
+
+    private HostMetrics host(String host) {
+        HostMetrics metrics = hosts.get(host);
+        if (metrics == null)
+            metrics = hosts.computeIfAbsent(host, h -> new HostMetrics());
+        return metrics;
+    }
+
+    public static class HostMetrics {
+        private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private HostMetrics() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        public LatencyHistogram getHistogram(@NotNull Phase phase) {
+            return histograms[phase.ordinal()];
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+    }
+}
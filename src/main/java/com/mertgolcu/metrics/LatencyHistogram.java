@@ -0,0 +1,69 @@
+package com.mertgolcu.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two microsecond buckets.
+ * Percentiles are reported as the upper bound of their bucket, so they are at most 2x off.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        int index = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(index);
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile in nanoseconds, 0 when empty
+     */
+    public long getPercentileNanos(double percentile) {
+        return getPercentileNanos(percentile, this);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile of the histograms together, 0 when all are empty
+     */
+    public static long getPercentileNanos(double percentile, LatencyHistogram... histograms) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (LatencyHistogram histogram : histograms) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = histogram.buckets.get(i);
+                counts[i] += bucket;
+                total += bucket;
+            }
+        }
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank))
+                return TimeUnit.MICROSECONDS.toNanos(1L << i);
+        }
+        return TimeUnit.MICROSECONDS.toNanos(1L << (BUCKETS - 1));
+    }
+}
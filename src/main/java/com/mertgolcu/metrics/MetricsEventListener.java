@@ -0,0 +1,114 @@
+package com.mertgolcu.metrics;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Times the network phases of a single call and reports them to {@link ClientMetrics}.
+ */
+public class MetricsEventListener extends EventListener {
+
+    private final ClientMetrics metrics;
+    private final String host;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+    private long requestStart;
+    private long bodyStart;
+    private long requestBytes;
+    private long responseBytes;
+
+    public MetricsEventListener(@NotNull ClientMetrics metrics, @NotNull Call call) {
+        this.metrics = metrics;
+        this.host = call.request().url().host();
+    }
+
+    @NotNull
+    public static EventListener.Factory factory(@NotNull ClientMetrics metrics) {
+        return call -> new MetricsEventListener(metrics, call);
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+        metrics.record(host, Phase.DNS, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NotNull Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+        metrics.record(host, Phase.TLS, System.nanoTime() - tlsStart);
+    }
+
+    @Override
+    public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy, @Nullable Protocol protocol) {
+        metrics.record(host, Phase.CONNECT, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(@NotNull Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NotNull Call call, long byteCount) {
+        requestBytes += byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(@NotNull Call call) {
+        metrics.record(host, Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - requestStart);
+    }
+
+    @Override
+    public void responseBodyStart(@NotNull Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(@NotNull Call call, long byteCount) {
+        metrics.record(host, Phase.BODY_READ, System.nanoTime() - bodyStart);
+        responseBytes += byteCount;
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        metrics.record(host, Phase.CALL, System.nanoTime() - callStart);
+        metrics.recordBytes(host, requestBytes, responseBytes);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        metrics.recordBytes(host, requestBytes, responseBytes);
+        metrics.recordFailure(host, ioe);
+    }
+}
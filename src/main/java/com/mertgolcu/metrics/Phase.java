@@ -0,0 +1,23 @@
+package com.mertgolcu.metrics;
+
+/**
+ * Timed parts of a call.
+ */
+public enum Phase {
+    DNS,
+    CONNECT,
+    TLS,
+    /**
+     * From sending the request headers until the response headers arrive
+     */
+    TIME_TO_FIRST_BYTE,
+    BODY_READ,
+    /**
+     * JSON decode, includes reading the parts of the body that were not buffered yet
+     */
+    DECODE,
+    /**
+     * The whole call, from start until the response body is read
+     */
+    CALL
+}
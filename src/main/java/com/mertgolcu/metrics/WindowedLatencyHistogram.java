@@ -0,0 +1,56 @@
+package com.mertgolcu.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LatencyHistogram} over the current and the previous window, older latencies are forgotten.
+ * Percentiles follow a host that got slower or faster instead of its whole history.
+ */
+public class WindowedLatencyHistogram {
+
+    private final long windowNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile LatencyHistogram previous = new LatencyHistogram();
+
+    public WindowedLatencyHistogram(@NotNull Duration window) {
+        if (window.isNegative() || window.isZero())
+            throw new IllegalArgumentException("window must be positive");
+        this.windowNanos = window.toNanos();
+    }
+
+    public void record(long nanos) {
+        rotate();
+        current.record(nanos);
+    }
+
+    /**
+     * @return latencies recorded in the current and the previous window
+     */
+    public long getCount() {
+        rotate();
+        return current.getCount() + previous.getCount();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile in nanoseconds, 0 when empty
+     */
+    public long getPercentileNanos(double percentile) {
+        rotate();
+        return LatencyHistogram.getPercentileNanos(percentile, current, previous);
+    }
+
+    private void rotate() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start < windowNanos || !windowStart.compareAndSet(start, now))
+            return;
+        // a whole window without records leaves nothing worth keeping
+        previous = now - start >= 2 * windowNanos ? new LatencyHistogram() : current;
+        current = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,72 @@
+package com.mertgolcu.request;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * When a {@link PostBatcher} sends the elements it collected. A batch is sent as soon as one
+ * of the limits is reached.
+ */
+public class BatchPolicy {
+
+    private int maxItems = 100;
+    private long maxBytes = 1024 * 1024;
+    private Duration linger = Duration.ofMillis(10);
+    private boolean deduplicate = true;
+
+    /**
+     * Distinct elements of a batch.
+     */
+    public BatchPolicy maxItems(int maxItems) {
+        if (maxItems < 1)
+            throw new IllegalArgumentException("maxItems < 1: " + maxItems);
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    /**
+     * Encoded size of the elements of a batch.
+     */
+    public BatchPolicy maxBytes(long maxBytes) {
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes < 1: " + maxBytes);
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * How long the first element of a batch waits for others.
+     */
+    public BatchPolicy linger(@NotNull Duration linger) {
+        if (linger.isNegative())
+            throw new IllegalArgumentException("linger must not be negative");
+        this.linger = linger;
+        return this;
+    }
+
+    /**
+     * Sends elements with the same JSON once per batch, their callers share the response element.
+     * Enabled by default, disable it when repeated elements must be counted by the server.
+     */
+    public BatchPolicy deduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+        return this;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Duration getLinger() {
+        return linger;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+}
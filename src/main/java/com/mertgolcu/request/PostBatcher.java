@@ -0,0 +1,298 @@
+package com.mertgolcu.request;
+
+import com.mertgolcu.exception.ResponseException;
+import com.mertgolcu.util.ClientMediaType;
+import com.mertgolcu.util.Futures;
+import com.mertgolcu.util.ResponseCallback;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects single elements posted to one URL and sends them together as a JSON array.
+ * <p>
+ * A batch is sent when it reaches the item or byte limit of its {@link BatchPolicy}, or when its first
+ * element has waited for the linger time. The response must be a JSON array with one element per sent
+ * element in the same order, each caller is completed with its element. Elements with the same JSON
+ * are sent once per batch when deduplication is enabled. A failed batch fails every caller in it.
+ *
+ * @param <V> element type
+ * @param <T> element type of the response array
+ */
+public class PostBatcher<V, T> implements Closeable {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleClient batch linger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Call.Factory callFactory;
+    private final Request request;
+    private final JsonAdapter<V> adapter;
+    @Nullable
+    private final JsonAdapter<List<T>> responseAdapter;
+    private final BatchPolicy policy;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private Batch<T> current = new Batch<>();
+    private boolean closed;
+
+    /**
+     * @param request         url and headers of the batch requests
+     * @param responseAdapter decodes the response array, null to ignore the response body and complete callers with null
+     */
+    public PostBatcher(@NotNull Call.Factory callFactory,
+                       @NotNull Request request,
+                       @NotNull JsonAdapter<V> adapter,
+                       @Nullable JsonAdapter<List<T>> responseAdapter,
+                       @NotNull BatchPolicy policy) {
+        this.callFactory = callFactory;
+        this.request = request;
+        this.adapter = adapter;
+        this.responseAdapter = responseAdapter;
+        this.policy = policy;
+    }
+
+    /**
+     * @return future of the response element of this element
+     */
+    @NotNull
+    public CompletableFuture<T> add(@NotNull V element) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ByteString json;
+        try {
+            Buffer buffer = new Buffer();
+            adapter.toJson(buffer, element);
+            json = buffer.readByteString();
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        Batch<T> full = null;
+        Batch<T> filled = null;
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("Batcher is closed"));
+                return future;
+            }
+            // keeps a batch under the byte limit unless a single element is larger
+            if (!current.isEmpty() && current.bytes + json.size() + 1 > policy.getMaxBytes())
+                full = swap();
+            if (current.isEmpty() && policy.getLinger().toNanos() > 0) {
+                Batch<T> batch = current;
+                batch.linger = SCHEDULER.schedule(() -> flush(batch), policy.getLinger().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (!current.add(json, future, policy.isDeduplicate()))
+                deduplicated.increment();
+            if (current.size() >= policy.getMaxItems() || current.bytes >= policy.getMaxBytes()
+                    || policy.getLinger().toNanos() == 0)
+                filled = swap();
+        }
+        send(full);
+        send(filled);
+        return future;
+    }
+
+    public void add(@NotNull V element, @NotNull ResponseCallback<T> callback) {
+        add(element).whenComplete((value, error) -> {
+            if (error != null) {
+                Throwable cause = Futures.unwrap(error);
+                callback.onFail(cause instanceof Exception e ? e : new RuntimeException(cause));
+                return;
+            }
+            try {
+                callback.onSuccess(value);
+            } catch (Exception e) {
+                callback.onFail(e);
+            }
+        });
+    }
+
+    /**
+     * Sends the collected elements now.
+     */
+    public void flush() {
+        Batch<T> batch;
+        synchronized (this) {
+            batch = current.isEmpty() ? null : swap();
+        }
+        send(batch);
+    }
+
+    /**
+     * Sends the collected elements, later elements are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /**
+     * @return batch requests sent
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return elements sent in batches, without the deduplicated ones
+     */
+    public long getElementCount() {
+        return elements.sum();
+    }
+
+    /**
+     * @return elements that shared the response element of an equal one
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    private void flush(Batch<T> batch) {
+        synchronized (this) {
+            if (current != batch)
+                return;
+            swap();
+        }
+        send(batch);
+    }
+
+    private Batch<T> swap() {
+        Batch<T> batch = current;
+        current = new Batch<>();
+        if (batch.linger != null)
+            batch.linger.cancel(false);
+        return batch;
+    }
+
+    private void send(@Nullable Batch<T> batch) {
+        if (batch == null)
+            return;
+        batches.increment();
+        elements.add(batch.size());
+        Buffer body = new Buffer();
+        body.writeByte('[');
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0)
+                body.writeByte(',');
+            body.write(batch.elements.get(i));
+        }
+        body.writeByte(']');
+        RequestBody requestBody = RequestBody.create(body.readByteString(), ClientMediaType.JSON.getMediaType());
+        try {
+            callFactory.newCall(request.newBuilder().post(requestBody).build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    batch.fail(e);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    try (response) {
+                        batch.complete(decode(response, batch.size()));
+                    } catch (Exception e) {
+                        batch.fail(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            batch.fail(e);
+        }
+    }
+
+    @Nullable
+    private List<T> decode(Response response, int size) throws IOException, ResponseException {
+        if (!response.isSuccessful())
+            throw new ResponseException(response.message(), response.code());
+        if (responseAdapter == null)
+            return null;
+        ResponseBody body = response.body();
+        List<T> values = body != null ? responseAdapter.fromJson(body.source()) : null;
+        if (values == null || values.size() != size)
+            throw new IOException("Batch response has " + (values == null ? 0 : values.size())
+                    + " elements for " + size + " requests");
+        return values;
+    }
+
+    /**
+     * Distinct elements of a batch with the callers waiting for each of them.
+     */
+    private static final class Batch<T> {
+
+        final List<ByteString> elements = new ArrayList<>();
+        final List<List<CompletableFuture<T>>> waiters = new ArrayList<>();
+        final Map<ByteString, Integer> indexes = new HashMap<>();
+        long bytes;
+        ScheduledFuture<?> linger;
+
+        /**
+         * @return false if the element joined an equal one
+         */
+        boolean add(ByteString json, CompletableFuture<T> future, boolean deduplicate) {
+            if (deduplicate) {
+                Integer index = indexes.putIfAbsent(json, elements.size());
+                if (index != null) {
+                    waiters.get(index).add(future);
+                    return false;
+                }
+            }
+            List<CompletableFuture<T>> futures = new ArrayList<>(1);
+            futures.add(future);
+            elements.add(json);
+            waiters.add(futures);
+            bytes += json.size() + 1;
+            return true;
+        }
+
+        int size() {
+            return elements.size();
+        }
+
+        boolean isEmpty() {
+            return elements.isEmpty();
+        }
+
+        void complete(@Nullable List<T> values) {
+            for (int i = 0; i < waiters.size(); i++) {
+                T value = values != null ? values.get(i) : null;
+                for (CompletableFuture<T> future : waiters.get(i)) {
+                    future.complete(value);
+                }
+            }
+        }
+
+        void fail(Throwable error) {
+            for (List<CompletableFuture<T>> futures : waiters) {
+                for (CompletableFuture<T> future : futures) {
+                    future.completeExceptionally(error);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mertgolcu.request;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Merges identical GET requests that are in flight at the same time into a single call (single-flight).
+ * <p>
+ * Requests are identical when their URL with query parameters, response type and the values of the
+ * {@code Authorization}, {@code Cookie} and any other key headers match, so callers with other
+ * credentials never share a response. Every caller gets the decoded result of the one call.
+ * Cancelling one caller's future does not cancel the shared call.
+ */
+public class RequestCoalescer {
+
+    private static final List<String> CREDENTIAL_HEADERS = List.of("authorization", "cookie");
+
+    private final List<String> keyHeaders;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param keyHeaders headers besides the credentials whose values change the response, e.g. {@code Accept-Language}
+     */
+    public RequestCoalescer(@NotNull List<String> keyHeaders) {
+        Set<String> names = new LinkedHashSet<>(CREDENTIAL_HEADERS);
+        for (String name : keyHeaders) {
+            names.add(name.toLowerCase(Locale.ROOT));
+        }
+        this.keyHeaders = List.copyOf(names);
+    }
+
+    public boolean canCoalesce(@NotNull Request request) {
+        return "GET".equals(request.method());
+    }
+
+    /**
+     * Joins the call in flight for the same request, or starts it with {@code call}.
+     *
+     * @param request request about to be sent
+     * @param type    response type
+     * @param call    sends the request, runs on the calling thread when this caller is the first one
+     * @return future of the shared result
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public <T> CompletableFuture<T> coalesce(@NotNull Request request,
+                                             @NotNull Type type,
+                                             @NotNull Supplier<CompletableFuture<T>> call) {
+        Key key = new Key(request.url(), type, headerValues(request));
+        CompletableFuture<Object> shared = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return (CompletableFuture<T>) existing.copy();
+        }
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null)
+                shared.completeExceptionally(error);
+            else
+                shared.complete(value);
+        });
+        return (CompletableFuture<T>) shared.copy();
+    }
+
+    /**
+     * @return number of requests that joined a call in flight instead of sending their own
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private List<String> headerValues(Request request) {
+        List<String> values = new ArrayList<>(keyHeaders.size());
+        for (String name : keyHeaders) {
+            values.add(String.join(",", request.headers(name)));
+        }
+        return values;
+    }
+
+    private record Key(HttpUrl url, Type type, List<String> headerValues) {
+    }
+}
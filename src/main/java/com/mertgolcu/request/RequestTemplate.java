@@ -0,0 +1,247 @@
+package com.mertgolcu.request;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A URL with {@code {placeholders}} and static headers that is parsed once and bound per call.
+ * <p>
+ * Placeholders can be used in path segments, also inside a segment like {@code {id}.json},
+ * and as query values. Binding only encodes the variables, the rest of the URL and the headers
+ * are reused as they are. A template is immutable and can be shared between threads.
+ * <pre>{@code
+ * RequestTemplate template = RequestTemplate.builder("https://api.example.com/users/{id}/orders?page={page}")
+ *         .header("Accept", "application/json")
+ *         .build();
+ * Request request = template.get("42", "1");
+ * }</pre>
+ */
+public final class RequestTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^{}/]+)}");
+
+    private final HttpUrl base;
+    private final Part[] path;
+    private final String[] queryNames;
+    private final Part[] queryValues;
+    private final String[] variables;
+    private final Headers headers;
+
+    private RequestTemplate(Builder builder) {
+        HttpUrl url = HttpUrl.get(builder.urlTemplate);
+        List<String> names = new ArrayList<>();
+        List<String> segments = url.pathSegments();
+        List<String> encodedSegments = url.encodedPathSegments();
+        path = new Part[segments.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = Part.parse(segments.get(i), encodedSegments.get(i), names);
+        }
+        queryNames = new String[url.querySize()];
+        queryValues = new Part[queryNames.length];
+        for (int i = 0; i < queryNames.length; i++) {
+            queryNames[i] = url.queryParameterName(i);
+            String value = url.queryParameterValue(i);
+            queryValues[i] = value == null ? null : Part.parse(value, null, names);
+        }
+        base = url.newBuilder().encodedPath("/").query(null).fragment(null).build();
+        variables = names.toArray(new String[0]);
+        headers = builder.headers.build();
+    }
+
+    @NotNull
+    @Contract("_ -> new")
+    public static Builder builder(@NotNull String urlTemplate) {
+        return new Builder(urlTemplate);
+    }
+
+    @NotNull
+    @Contract("_ -> new")
+    public static RequestTemplate of(@NotNull String urlTemplate) {
+        return builder(urlTemplate).build();
+    }
+
+    /**
+     * @return placeholder names in the order {@link #url(String...)} expects their values
+     */
+    public List<String> getVariables() {
+        return List.of(variables);
+    }
+
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @param values a value for every variable in the order of {@link #getVariables()},
+     *               a null query value leaves the parameter out
+     */
+    @NotNull
+    public HttpUrl url(@NotNull String... values) {
+        if (values.length != variables.length)
+            throw new IllegalArgumentException("Expected " + variables.length + " values for "
+                    + Arrays.toString(variables) + " but got " + values.length);
+        HttpUrl.Builder builder = base.newBuilder();
+        for (int i = 0; i < path.length; i++) {
+            // the base path is "/", a single empty segment that the first segment replaces
+            Part part = path[i];
+            if (part.encoded != null) {
+                if (i == 0)
+                    builder.setEncodedPathSegment(0, part.encoded);
+                else
+                    builder.addEncodedPathSegment(part.encoded);
+            } else {
+                String segment = part.bind(values, variables, true);
+                if (i == 0)
+                    builder.setPathSegment(0, segment);
+                else
+                    builder.addPathSegment(segment);
+            }
+        }
+        for (int i = 0; i < queryNames.length; i++) {
+            Part part = queryValues[i];
+            String value = part == null ? null : part.bind(values, variables, false);
+            if (part == null || value != null)
+                builder.addQueryParameter(queryNames[i], value);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Same as {@link #url(String...)} with the values looked up by variable name.
+     */
+    @NotNull
+    public HttpUrl url(@NotNull Map<String, String> values) {
+        String[] ordered = new String[variables.length];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = values.get(variables[i]);
+        }
+        return url(ordered);
+    }
+
+    /**
+     * @return a builder with the bound url and the static headers, to add a method, body or more headers
+     */
+    @NotNull
+    public Request.Builder bind(@NotNull String... values) {
+        return new Request.Builder().url(url(values)).headers(headers);
+    }
+
+    @NotNull
+    public Request.Builder bind(@NotNull Map<String, String> values) {
+        return new Request.Builder().url(url(values)).headers(headers);
+    }
+
+    @NotNull
+    public Request get(@NotNull String... values) {
+        return bind(values).build();
+    }
+
+    @NotNull
+    public Request post(@NotNull RequestBody body, @NotNull String... values) {
+        return bind(values).post(body).build();
+    }
+
+    /**
+     * A path segment or query value split into literal text and variables.
+     * {@code literals} has one more element than {@code indexes}.
+     */
+    private static final class Part {
+
+        @Nullable
+        private final String encoded;
+        private final String[] literals;
+        private final int[] indexes;
+
+        private Part(@Nullable String encoded, String[] literals, int[] indexes) {
+            this.encoded = encoded;
+            this.literals = literals;
+            this.indexes = indexes;
+        }
+
+        static Part parse(String text, @Nullable String encoded, List<String> names) {
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            List<String> literals = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            int last = 0;
+            while (matcher.find()) {
+                literals.add(text.substring(last, matcher.start()));
+                String name = matcher.group(1);
+                int index = names.indexOf(name);
+                if (index < 0) {
+                    index = names.size();
+                    names.add(name);
+                }
+                indexes.add(index);
+                last = matcher.end();
+            }
+            literals.add(text.substring(last));
+            return new Part(indexes.isEmpty() ? encoded : null,
+                    literals.toArray(new String[0]),
+                    indexes.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        @Nullable
+        String bind(String[] values, String[] variables, boolean required) {
+            if (indexes.length == 0)
+                return literals[0];
+            if (literals.length == 2 && literals[0].isEmpty() && literals[1].isEmpty())
+                return check(values[indexes[0]], variables[indexes[0]], required);
+            StringBuilder builder = new StringBuilder(literals[0]);
+            for (int i = 0; i < indexes.length; i++) {
+                String value = check(values[indexes[i]], variables[indexes[i]], required);
+                if (value == null)
+                    return null;
+                builder.append(value).append(literals[i + 1]);
+            }
+            return builder.toString();
+        }
+
+        @Nullable
+        private static String check(@Nullable String value, String name, boolean required) {
+            if (value == null && required)
+                throw new IllegalArgumentException("No value for path variable " + name);
+            return value;
+        }
+    }
+
+    public static class Builder {
+
+        private final String urlTemplate;
+        private final Headers.Builder headers = new Headers.Builder();
+
+        private Builder(String urlTemplate) {
+            this.urlTemplate = urlTemplate;
+        }
+
+        public Builder header(@NotNull String name, @NotNull String value) {
+            headers.add(name, value);
+            return this;
+        }
+
+        public Builder headers(@NotNull Map<String, String> headers) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                this.headers.add(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the url is not valid, placeholders are only allowed in the path and query
+         */
+        public RequestTemplate build() {
+            return new RequestTemplate(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mertgolcu.request;
+
+import kotlin.Pair;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Describes a single GET or POST call, used to send many calls at once
+ * with {@link com.mertgolcu.SimpleClient#batch(java.util.List, int)}.
+ *
+ * @param <T> expected response type
+ */
+public class SimpleRequest<T> {
+
+    private final String url;
+    @Nullable
+    private final Object body;
+    private final Class<T> clazz;
+    @Nullable
+    private Pair<String, String> header;
+    @Nullable
+    private Map<String, String> headers;
+    @Nullable
+    private Map<String, String> params;
+
+    private SimpleRequest(String url, @Nullable Object body, Class<T> clazz) {
+        this.url = url;
+        this.body = body;
+        this.clazz = clazz;
+    }
+
+    @NotNull
+    @Contract("_, _ -> new")
+    public static <T> SimpleRequest<T> get(@NotNull String url, @NotNull Class<T> clazz) {
+        return new SimpleRequest<>(url, null, clazz);
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static <T> SimpleRequest<T> post(@NotNull String url, @NotNull Object body, @NotNull Class<T> clazz) {
+        return new SimpleRequest<>(url, body, clazz);
+    }
+
+    public SimpleRequest<T> header(@Nullable Pair<String, String> header) {
+        this.header = header;
+        return this;
+    }
+
+    public SimpleRequest<T> headers(@Nullable Map<String, String> headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    public SimpleRequest<T> params(@Nullable Map<String, String> params) {
+        this.params = params;
+        return this;
+    }
+
+    public boolean isPost() {
+        return body != null;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Nullable
+    public Object getBody() {
+        return body;
+    }
+
+    public Class<T> getClazz() {
+        return clazz;
+    }
+
+    @Nullable
+    public Pair<String, String> getHeader() {
+        return header;
+    }
+
+    @Nullable
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Nullable
+    public Map<String, String> getParams() {
+        return params;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mertgolcu.resilience;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free circuit breaker for a single host.
+ * <p>
+ * It opens after {@code failureThreshold} failures in a row and rejects calls for {@code openDuration}.
+ * Then it lets a single probe through, a success closes it, a failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private volatile State state = State.CLOSED;
+
+    public CircuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("failureThreshold < 1: " + failureThreshold);
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return true if a call may be sent now
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED)
+            return true;
+        long opened = openedAt.get();
+        long now = System.nanoTime();
+        if (now - opened < openNanos)
+            return false;
+        // one probe per open interval, a lost probe is replaced after the next interval
+        if (!openedAt.compareAndSet(opened, now))
+            return false;
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        if (state != State.CLOSED)
+            state = State.CLOSED;
+    }
+
+    public void onFailure() {
+        if (state != State.CLOSED || failures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            state = State.OPEN;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,87 @@
+package com.mertgolcu.resilience;
+
+import com.mertgolcu.metrics.WindowedLatencyHistogram;
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends a second attempt of a slow GET after the host's observed p95 (or another percentile) latency,
+ * the first response wins and the other call is cancelled. The percentile covers the latencies of the
+ * last one to two windows, so the delay follows the host when it gets slower or faster.
+ */
+public class HedgePolicy {
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    @Nullable
+    private final RetryBudget budget;
+    private final Duration window;
+    private final Map<String, WindowedLatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param percentile latency percentile after which the hedge is sent, e.g. 95
+     * @param minDelay   lower bound of the hedge delay
+     * @param maxDelay   upper bound of the hedge delay, used until latencies are known
+     * @param budget     caps the share of hedged requests, null for no cap
+     */
+    public HedgePolicy(double percentile, @NotNull Duration minDelay, @NotNull Duration maxDelay, @Nullable RetryBudget budget) {
+        this(percentile, minDelay, maxDelay, budget, Duration.ofSeconds(30));
+    }
+
+    /**
+     * @param window how long a latency counts for the percentile, it is forgotten after two windows
+     */
+    public HedgePolicy(double percentile,
+                       @NotNull Duration minDelay,
+                       @NotNull Duration maxDelay,
+                       @Nullable RetryBudget budget,
+                       @NotNull Duration window) {
+        if (window.isNegative() || window.isZero())
+            throw new IllegalArgumentException("window must be positive");
+        this.window = window;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budget = budget;
+    }
+
+    /**
+     * @return p95, 10ms to 1s delay and at most 5% hedged requests
+     */
+    public static HedgePolicy defaults() {
+        return new HedgePolicy(95, Duration.ofMillis(10), Duration.ofSeconds(1), new RetryBudget(0.05, 10));
+    }
+
+    public boolean canHedge(@NotNull Request request) {
+        return "GET".equals(request.method());
+    }
+
+    public long delayNanos(@NotNull String host) {
+        WindowedLatencyHistogram histogram = latencies.get(host);
+        if (histogram == null || histogram.getCount() == 0)
+            return maxDelayNanos;
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, histogram.getPercentileNanos(percentile)));
+    }
+
+    public void record(@NotNull String host, long nanos) {
+        WindowedLatencyHistogram histogram = latencies.get(host);
+        if (histogram == null)
+            histogram = latencies.computeIfAbsent(host, h -> new WindowedLatencyHistogram(window));
+        histogram.record(nanos);
+    }
+
+    public void onRequest() {
+        if (budget != null)
+            budget.deposit();
+    }
+
+    public boolean tryHedge() {
+        return budget == null || budget.tryWithdraw();
+    }
+}
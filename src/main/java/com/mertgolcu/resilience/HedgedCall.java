@@ -0,0 +1,100 @@
+package com.mertgolcu.resilience;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a request with a hedge, see {@link HedgePolicy}.
+ */
+public final class HedgedCall {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleClient hedge scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HedgedCall() {
+    }
+
+    /**
+     * @return future of the first response, the caller must close it. Cancelling the future cancels both calls.
+     */
+    @NotNull
+    public static CompletableFuture<Response> execute(@NotNull Call.Factory factory,
+                                                      @NotNull Request request,
+                                                      @NotNull HedgePolicy policy) {
+        String host = request.url().host();
+        List<Call> calls = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Call> winner = new AtomicReference<>();
+        CompletableFuture<Response> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                calls.forEach(Call::cancel);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        policy.onRequest();
+        start(factory.newCall(request), calls, failures, winner, result, policy, host);
+        ScheduledFuture<?> hedge = SCHEDULER.schedule(() -> {
+            if (!result.isDone() && policy.tryHedge())
+                start(factory.newCall(request), calls, failures, winner, result, policy, host);
+        }, policy.delayNanos(host), TimeUnit.NANOSECONDS);
+        result.whenComplete((response, error) -> {
+            hedge.cancel(false);
+            cancelLosers(calls, winner.get());
+        });
+        return result;
+    }
+
+    private static void start(Call call,
+                              List<Call> calls,
+                              AtomicInteger failures,
+                              AtomicReference<Call> winner,
+                              CompletableFuture<Response> result,
+                              HedgePolicy policy,
+                              String host) {
+        calls.add(call);
+        long start = System.nanoTime();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                // fail once no other attempt is left running
+                if (failures.incrementAndGet() == calls.size())
+                    result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                policy.record(host, System.nanoTime() - start);
+                if (!winner.compareAndSet(null, call) || !result.complete(response))
+                    response.close();
+            }
+        });
+        // a hedge started while the result completed
+        if (result.isDone())
+            cancelLosers(calls, winner.get());
+    }
+
+    private static void cancelLosers(List<Call> calls, Call winner) {
+        for (Call call : calls) {
+            if (call != winner)
+                call.cancel();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mertgolcu.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries (and hedges) to a share of the requests, so a failing backend
+ * is not hit by a retry storm.
+ * <p>
+ * Every request deposits {@code ratio} tokens and every retry withdraws one,
+ * the balance is capped at {@code maxBurst} tokens and starts full.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio    retries allowed per request, e.g. 0.1 for 10%
+     * @param maxBurst retries allowed in a row once the balance is full
+     */
+    public RetryBudget(double ratio, int maxBurst) {
+        if (ratio < 0)
+            throw new IllegalArgumentException("ratio < 0: " + ratio);
+        if (maxBurst < 0)
+            throw new IllegalArgumentException("maxBurst < 0: " + maxBurst);
+        this.deposit = (long) (ratio * SCALE);
+        this.maxBalance = maxBurst * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance)
+                return;
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + deposit)));
+    }
+
+    /**
+     * @return true if a retry may be sent
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE)
+                return false;
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
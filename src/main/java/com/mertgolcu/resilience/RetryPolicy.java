@@ -0,0 +1,78 @@
+package com.mertgolcu.resilience;
+
+import okhttp3.Request;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries of idempotent requests with exponential backoff and full jitter.
+ */
+public class RetryPolicy {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<Integer> RETRYABLE_CODES = Set.of(429, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    @Nullable
+    private final RetryBudget budget;
+
+    /**
+     * @param maxAttempts attempts including the first one
+     * @param baseDelay   backoff before the first retry, doubled for every further retry
+     * @param maxDelay    max backoff
+     * @param budget      shared retry budget, null for no budget
+     */
+    public RetryPolicy(int maxAttempts, @NotNull Duration baseDelay, @NotNull Duration maxDelay, @Nullable RetryBudget budget) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts < 1: " + maxAttempts);
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budget = budget;
+    }
+
+    /**
+     * @return 3 attempts, 50ms to 2s backoff and a 10% retry budget
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, Duration.ofMillis(50), Duration.ofSeconds(2), new RetryBudget(0.1, 10));
+    }
+
+    public boolean isRetryable(@NotNull Request request) {
+        return IDEMPOTENT_METHODS.contains(request.method());
+    }
+
+    public boolean isRetryable(int code) {
+        return RETRYABLE_CODES.contains(code);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getMaxDelayNanos() {
+        return maxDelayNanos;
+    }
+
+    /**
+     * @param attempt the attempt that just failed, starting from 1
+     * @return a random backoff between zero and the exponential cap
+     */
+    public long backoffNanos(int attempt) {
+        long cap = baseDelayNanos << Math.min(attempt - 1, 30);
+        if (cap <= 0 || cap > maxDelayNanos)
+            cap = maxDelayNanos;
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    @Nullable
+    public RetryBudget getBudget() {
+        return budget;
+    }
+}
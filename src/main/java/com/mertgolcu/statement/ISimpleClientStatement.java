@@ -1,11 +1,14 @@
 package com.mertgolcu.statement;
 
+import com.mertgolcu.json.TypeReference;
 import com.mertgolcu.util.ResponseCallback;
 
 import kotlin.Pair;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface ISimpleClientStatement {
 
@@ -193,4 +196,318 @@ public interface ISimpleClientStatement {
     <T, V> T post(String url,
                   V requestBody,
                   Class<T> clazz);
+
+    /**
+     * Asynchronously sends a GET request with the provided URL, headers, and query parameters.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url     target endpoint URL
+     * @param header  single header as a Pair object
+     * @param headers additional headers as a Map
+     * @param params  query parameters as a Map
+     * @param clazz   class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T> CompletableFuture<T> getAsync(String url,
+                                      @Nullable Pair<String, String> header,
+                                      @Nullable Map<String, String> headers,
+                                      @Nullable Map<String, String> params,
+                                      Class<T> clazz);
+
+    /**
+     * Asynchronously sends a GET request with the provided URL and parameters.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url    target endpoint URL
+     * @param params query parameters as a Map
+     * @param clazz  class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T> CompletableFuture<T> getAsync(String url,
+                                      @Nullable Map<String, String> params,
+                                      Class<T> clazz);
+
+    /**
+     * Asynchronously sends a GET request with the provided URL.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url   target endpoint URL
+     * @param clazz class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T> CompletableFuture<T> getAsync(String url,
+                                      Class<T> clazz);
+
+    /**
+     * Asynchronously sends a POST request with the provided URL, headers, query parameters, and request body.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url         target endpoint URL
+     * @param header      single header as a Pair object
+     * @param headers     additional headers as a Map
+     * @param params      query parameters as a Map
+     * @param requestBody request body object of type V
+     * @param clazz       class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T, V> CompletableFuture<T> postAsync(String url,
+                                          @Nullable Pair<String, String> header,
+                                          @Nullable Map<String, String> headers,
+                                          @Nullable Map<String, String> params,
+                                          V requestBody,
+                                          Class<T> clazz);
+
+    /**
+     * Asynchronously sends a POST request with the provided URL, query parameters, and request body.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url         target endpoint URL
+     * @param params      query parameters as a Map
+     * @param requestBody request body object of type V
+     * @param clazz       class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T, V> CompletableFuture<T> postAsync(String url,
+                                          @Nullable Map<String, String> params,
+                                          V requestBody,
+                                          Class<T> clazz);
+
+    /**
+     * Asynchronously sends a POST request with the provided URL and request body.
+     * Cancelling the returned future cancels the underlying call.
+     *
+     * @param url         target endpoint URL
+     * @param requestBody request body object of type V
+     * @param clazz       class of the expected response type
+     * @return future of the response as an instance of the specified class
+     */
+    <T, V> CompletableFuture<T> postAsync(String url,
+                                          V requestBody,
+                                          Class<T> clazz);
+
+    /**
+     * Asynchronously sends a GET request and decodes the response into a generic type such as {@code List<Foo>}.
+     * Returns the response using the callback.
+     *
+     * @param url      target endpoint URL
+     * @param header   single header as a Pair object
+     * @param headers  additional headers as a Map
+     * @param params   query parameters as a Map
+     * @param type     expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @param callback callback to handle the response
+     */
+    <T> void get(String url,
+                 @Nullable Pair<String, String> header,
+                 @Nullable Map<String, String> headers,
+                 @Nullable Map<String, String> params,
+                 Type type,
+                 ResponseCallback<T> callback);
+
+    /**
+     * Synchronously sends a GET request and decodes the response into a generic type such as {@code List<Foo>}.
+     *
+     * @param url     target endpoint URL
+     * @param header  single header as a Pair object
+     * @param headers additional headers as a Map
+     * @param params  query parameters as a Map
+     * @param type    expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @return the response as an instance of the specified type
+     */
+    <T> T get(String url,
+              @Nullable Pair<String, String> header,
+              @Nullable Map<String, String> headers,
+              @Nullable Map<String, String> params,
+              Type type);
+
+    /**
+     * Asynchronously sends a GET request and decodes the response into a generic type such as {@code List<Foo>}.
+     *
+     * @param url     target endpoint URL
+     * @param header  single header as a Pair object
+     * @param headers additional headers as a Map
+     * @param params  query parameters as a Map
+     * @param type    expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @return future of the response as an instance of the specified type
+     */
+    <T> CompletableFuture<T> getAsync(String url,
+                                      @Nullable Pair<String, String> header,
+                                      @Nullable Map<String, String> headers,
+                                      @Nullable Map<String, String> params,
+                                      Type type);
+
+    /**
+     * Asynchronously sends a GET request and decodes the response into the referenced type.
+     * Returns the response using the callback.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param typeReference expected response type
+     * @param callback      callback to handle the response
+     */
+    <T> void get(String url,
+                 @Nullable Map<String, String> params,
+                 TypeReference<T> typeReference,
+                 ResponseCallback<T> callback);
+
+    /**
+     * Synchronously sends a GET request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param typeReference expected response type
+     * @return the response as an instance of the referenced type
+     */
+    <T> T get(String url,
+              @Nullable Map<String, String> params,
+              TypeReference<T> typeReference);
+
+    /**
+     * Asynchronously sends a GET request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param typeReference expected response type
+     * @return future of the response as an instance of the referenced type
+     */
+    <T> CompletableFuture<T> getAsync(String url,
+                                      @Nullable Map<String, String> params,
+                                      TypeReference<T> typeReference);
+
+    /**
+     * Synchronously sends a GET request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param typeReference expected response type
+     * @return the response as an instance of the referenced type
+     */
+    <T> T get(String url, TypeReference<T> typeReference);
+
+    /**
+     * Asynchronously sends a GET request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param typeReference expected response type
+     * @return future of the response as an instance of the referenced type
+     */
+    <T> CompletableFuture<T> getAsync(String url, TypeReference<T> typeReference);
+
+    /**
+     * Asynchronously sends a POST request and decodes the response into a generic type such as {@code List<Foo>}.
+     * Returns the response using the callback.
+     *
+     * @param url         target endpoint URL
+     * @param header      single header as a Pair object
+     * @param headers     additional headers as a Map
+     * @param params      query parameters as a Map
+     * @param requestBody request body object of type V
+     * @param type        expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @param callback    callback to handle the response
+     */
+    <T, V> void post(String url,
+                     @Nullable Pair<String, String> header,
+                     @Nullable Map<String, String> headers,
+                     @Nullable Map<String, String> params,
+                     V requestBody,
+                     Type type,
+                     ResponseCallback<T> callback);
+
+    /**
+     * Synchronously sends a POST request and decodes the response into a generic type such as {@code List<Foo>}.
+     *
+     * @param url         target endpoint URL
+     * @param header      single header as a Pair object
+     * @param headers     additional headers as a Map
+     * @param params      query parameters as a Map
+     * @param requestBody request body object of type V
+     * @param type        expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @return the response as an instance of the specified type
+     */
+    <T, V> T post(String url,
+                  @Nullable Pair<String, String> header,
+                  @Nullable Map<String, String> headers,
+                  @Nullable Map<String, String> params,
+                  V requestBody,
+                  Type type);
+
+    /**
+     * Asynchronously sends a POST request and decodes the response into a generic type such as {@code List<Foo>}.
+     *
+     * @param url         target endpoint URL
+     * @param header      single header as a Pair object
+     * @param headers     additional headers as a Map
+     * @param params      query parameters as a Map
+     * @param requestBody request body object of type V
+     * @param type        expected response type, e.g. from {@link com.squareup.moshi.Types#newParameterizedType}
+     * @return future of the response as an instance of the specified type
+     */
+    <T, V> CompletableFuture<T> postAsync(String url,
+                                          @Nullable Pair<String, String> header,
+                                          @Nullable Map<String, String> headers,
+                                          @Nullable Map<String, String> params,
+                                          V requestBody,
+                                          Type type);
+
+    /**
+     * Asynchronously sends a POST request and decodes the response into the referenced type.
+     * Returns the response using the callback.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param requestBody   request body object of type V
+     * @param typeReference expected response type
+     * @param callback      callback to handle the response
+     */
+    <T, V> void post(String url,
+                     @Nullable Map<String, String> params,
+                     V requestBody,
+                     TypeReference<T> typeReference,
+                     ResponseCallback<T> callback);
+
+    /**
+     * Synchronously sends a POST request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param requestBody   request body object of type V
+     * @param typeReference expected response type
+     * @return the response as an instance of the referenced type
+     */
+    <T, V> T post(String url,
+                  @Nullable Map<String, String> params,
+                  V requestBody,
+                  TypeReference<T> typeReference);
+
+    /**
+     * Asynchronously sends a POST request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param params        query parameters as a Map
+     * @param requestBody   request body object of type V
+     * @param typeReference expected response type
+     * @return future of the response as an instance of the referenced type
+     */
+    <T, V> CompletableFuture<T> postAsync(String url,
+                                          @Nullable Map<String, String> params,
+                                          V requestBody,
+                                          TypeReference<T> typeReference);
+
+    /**
+     * Synchronously sends a POST request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param requestBody   request body object of type V
+     * @param typeReference expected response type
+     * @return the response as an instance of the referenced type
+     */
+    <T, V> T post(String url, V requestBody, TypeReference<T> typeReference);
+
+    /**
+     * Asynchronously sends a POST request and decodes the response into the referenced type.
+     *
+     * @param url           target endpoint URL
+     * @param requestBody   request body object of type V
+     * @param typeReference expected response type
+     * @return future of the response as an instance of the referenced type
+     */
+    <T, V> CompletableFuture<T> postAsync(String url, V requestBody, TypeReference<T> typeReference);
 }
@@ -0,0 +1,80 @@
+package com.mertgolcu.transfer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of {@link com.mertgolcu.SimpleClient#download(String, java.nio.file.Path, DownloadOptions)}.
+ */
+public class DownloadOptions {
+
+    private boolean resume;
+    private int parallelism = 1;
+    private long minChunkSize = 8L * 1024 * 1024;
+    @Nullable
+    private ProgressListener listener;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * Continues a partial file with a Range request, a server that ignores the range rewrites the file.
+     */
+    public DownloadOptions resume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    /**
+     * Downloads the file in up to {@code parallelism} ranges at once when the server accepts ranges
+     * and the file is larger than two chunks. A parallel download always starts over.
+     */
+    public DownloadOptions parallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Smallest range of a parallel download in bytes.
+     */
+    public DownloadOptions minChunkSize(long minChunkSize) {
+        if (minChunkSize < 1)
+            throw new IllegalArgumentException("minChunkSize < 1: " + minChunkSize);
+        this.minChunkSize = minChunkSize;
+        return this;
+    }
+
+    public DownloadOptions progress(@NotNull ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public DownloadOptions header(@NotNull String name, @NotNull String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    @Nullable
+    public ProgressListener getListener() {
+        return listener;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
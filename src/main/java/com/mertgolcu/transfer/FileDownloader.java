@@ -0,0 +1,221 @@
+package com.mertgolcu.transfer;
+
+import com.mertgolcu.exception.ResponseException;
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a response body into a file.
+ * <p>
+ * Body segments are handed from the socket source to a buffer without copying and written from
+ * there into the file channel at their position, so the only heap copy is the one Okio reads into.
+ * Transfer calls have no call timeout, the read timeout still detects a stalled transfer.
+ */
+public class FileDownloader {
+
+    private static final long READ_SIZE = 64 * 1024;
+
+    private final Call.Factory callFactory;
+    private final ExecutorService executor;
+    private final DownloadOptions options;
+
+    /**
+     * @param executor runs the ranges of a parallel download
+     */
+    public FileDownloader(@NotNull Call.Factory callFactory, @NotNull ExecutorService executor, @NotNull DownloadOptions options) {
+        this.callFactory = callFactory;
+        this.executor = executor;
+        this.options = options;
+    }
+
+    /**
+     * @return size of the downloaded file
+     */
+    public long download(@NotNull Request request, @NotNull Path target) throws IOException, ResponseException {
+        Request base = withHeaders(request);
+        if (options.getParallelism() > 1) {
+            long length = probe(base);
+            if (length >= 2 * options.getMinChunkSize())
+                return parallel(base, target, length);
+        }
+        return single(base, target);
+    }
+
+    private long single(Request request, Path target) throws IOException, ResponseException {
+        long existing = options.isResume() && Files.exists(target) ? Files.size(target) : 0;
+        Request ranged = existing > 0
+                ? request.newBuilder().header("Range", "bytes=" + existing + "-").build()
+                : request;
+        try (Response response = execute(ranged)) {
+            // the file is already complete
+            if (existing > 0 && response.code() == 416)
+                return existing;
+            check(response);
+            boolean append = existing > 0 && response.code() == HttpURLConnection.HTTP_PARTIAL;
+            long position = append ? existing : 0;
+            ResponseBody body = body(response);
+            long length = body.contentLength();
+            long total = length < 0 ? -1 : position + length;
+            AtomicLong progress = new AtomicLong(position);
+            try (FileChannel channel = append
+                    ? FileChannel.open(target, StandardOpenOption.WRITE)
+                    : FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                return position + copy(body.source(), channel, position, progress, total);
+            }
+        }
+    }
+
+    private long parallel(Request request, Path target, long length) throws IOException, ResponseException {
+        int chunks = (int) Math.min(options.getParallelism(), length / options.getMinChunkSize());
+        long chunkSize = (length + chunks - 1) / chunks;
+        // rounding the size up can leave the last chunks empty, e.g. 10 bytes in 7 chunks of 2
+        chunks = (int) ((length + chunkSize - 1) / chunkSize);
+        AtomicLong progress = new AtomicLong();
+        List<Call> calls = new CopyOnWriteArrayList<>();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Future<Void>> futures = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long from = i * chunkSize;
+                long to = Math.min(length, from + chunkSize) - 1;
+                futures.add(executor.submit(() -> {
+                    downloadRange(request, channel, from, to, length, progress, calls);
+                    return null;
+                }));
+            }
+            await(futures, calls);
+        }
+        return length;
+    }
+
+    private void downloadRange(Request request, FileChannel channel, long from, long to, long total,
+                               AtomicLong progress, List<Call> calls) throws IOException, ResponseException {
+        Call call = newCall(request.newBuilder().header("Range", "bytes=" + from + "-" + to).build());
+        calls.add(call);
+        try (Response response = call.execute()) {
+            check(response);
+            ResponseBody body = body(response);
+            if (response.code() != HttpURLConnection.HTTP_PARTIAL || body.contentLength() != to - from + 1)
+                throw new IOException("Server did not return range " + from + "-" + to);
+            copy(body.source(), channel, from, progress, total);
+        }
+    }
+
+    private static void await(List<Future<Void>> futures, List<Call> calls) throws IOException, ResponseException {
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            cancel(futures, calls);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading");
+        } catch (ExecutionException e) {
+            cancel(futures, calls);
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            if (e.getCause() instanceof ResponseException response)
+                throw response;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void cancel(List<Future<Void>> futures, List<Call> calls) {
+        calls.forEach(Call::cancel);
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * @return length of the file if the server accepts byte ranges, -1 otherwise
+     */
+    private long probe(Request request) {
+        try (Response response = execute(request.newBuilder().head().build())) {
+            if (!response.isSuccessful() || !"bytes".equalsIgnoreCase(response.header("Accept-Ranges")))
+                return -1;
+            String length = response.header("Content-Length");
+            return length != null ? Long.parseLong(length) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long copy(BufferedSource source, FileChannel channel, long position, AtomicLong progress, long total) throws IOException {
+        ProgressListener listener = options.getListener();
+        Buffer buffer = new Buffer();
+        long written = 0;
+        try {
+            while (source.read(buffer, READ_SIZE) != -1) {
+                try (Buffer.UnsafeCursor cursor = buffer.readUnsafe()) {
+                    for (int n = cursor.seek(0); n != -1; n = cursor.next()) {
+                        ByteBuffer bytes = ByteBuffer.wrap(cursor.data, cursor.start, n);
+                        while (bytes.hasRemaining()) {
+                            written += channel.write(bytes, position + written);
+                        }
+                    }
+                }
+                long read = buffer.size();
+                buffer.clear();
+                long transferred = progress.addAndGet(read);
+                if (listener != null)
+                    listener.onProgress(transferred, total);
+            }
+        } finally {
+            buffer.clear();
+        }
+        return written;
+    }
+
+    private Response execute(Request request) throws IOException {
+        return newCall(request).execute();
+    }
+
+    private Call newCall(Request request) {
+        Call call = callFactory.newCall(request);
+        call.timeout().clearTimeout();
+        return call;
+    }
+
+    private Request withHeaders(Request request) {
+        // a compressed body would break ranges and the content length
+        Request.Builder builder = request.newBuilder().header("Accept-Encoding", "identity");
+        for (Map.Entry<String, String> entry : options.getHeaders().entrySet()) {
+            builder.header(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    private static void check(Response response) throws ResponseException {
+        if (!response.isSuccessful())
+            throw new ResponseException(response.message(), response.code());
+    }
+
+    @NotNull
+    private static ResponseBody body(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null)
+            throw new IOException("Response has no body");
+        return body;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mertgolcu.transfer;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Request body that streams a file.
+ * <p>
+ * The file channel reads straight into the segments of the socket sink's buffer,
+ * so the bytes are not copied on the heap before they are written to the socket.
+ */
+public class FileRequestBody extends RequestBody {
+
+    // an Okio segment, the most a cursor can expand the buffer by at once
+    private static final int SEGMENT_SIZE = 8192;
+
+    private final Path path;
+    @Nullable
+    private final MediaType mediaType;
+    @Nullable
+    private final ProgressListener listener;
+
+    private FileRequestBody(Path path, @Nullable MediaType mediaType, @Nullable ProgressListener listener) {
+        this.path = path;
+        this.mediaType = mediaType;
+        this.listener = listener;
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static FileRequestBody of(@NotNull Path path, @Nullable MediaType mediaType, @Nullable ProgressListener listener) {
+        return new FileRequestBody(path, mediaType, listener);
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            Buffer buffer = sink.getBuffer();
+            while (position < size) {
+                int read;
+                try (Buffer.UnsafeCursor cursor = buffer.readAndWriteUnsafe()) {
+                    long oldSize = buffer.size();
+                    cursor.expandBuffer((int) Math.min(SEGMENT_SIZE, size - position));
+                    read = channel.read(ByteBuffer.wrap(cursor.data, cursor.start, cursor.end - cursor.start), position);
+                    cursor.resizeBuffer(oldSize + Math.max(read, 0));
+                }
+                if (read < 0)
+                    break;
+                position += read;
+                sink.emitCompleteSegments();
+                if (listener != null)
+                    listener.onProgress(position, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.mertgolcu.transfer;
+
+/**
+ * Reports the progress of a file transfer. In a parallel download it is called from several
+ * threads, with the total of all chunks.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * @param bytesTransferred bytes written so far, including bytes of a resumed download
+     * @param totalBytes       size of the file, -1 if unknown
+     */
+    void onProgress(long bytesTransferred, long totalBytes);
+}
@@ -5,14 +5,18 @@ import okhttp3.MediaType;
 public enum ClientMediaType {
 
 
-    JSON("application/json; charset=utf-8");
+    JSON("application/json; charset=utf-8"),
+    NDJSON("application/x-ndjson"),
+    MSGPACK("application/x-msgpack");
     public final String label;
+    private final MediaType mediaType;
 
     ClientMediaType(String label) {
         this.label = label;
+        this.mediaType = MediaType.get(label);
     }
 
     public MediaType getMediaType() {
-        return MediaType.parse(label);
+        return mediaType;
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.mertgolcu.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Typed combinators for the futures returned by the async API.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * @return a future of all results in order, failing as soon as one of the futures fails
+     * and cancelling the rest
+     */
+    public static <T> CompletableFuture<List<T>> allOf(@NotNull List<? extends CompletableFuture<? extends T>> futures) {
+        return inOrder(futures.size(), futures.size(), futures::get);
+    }
+
+    /**
+     * @return a future of the first successful result, failing only when every future fails
+     */
+    public static <T> CompletableFuture<T> anyOf(@NotNull List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("No futures given"));
+            return result;
+        }
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<? extends T> future : futures) {
+            future.whenComplete((value, error) -> {
+                if (error == null)
+                    result.complete(value);
+                else if (failed.incrementAndGet() == futures.size())
+                    result.completeExceptionally(unwrap(error));
+            });
+        }
+        result.whenComplete((value, error) -> futures.forEach(future -> future.cancel(true)));
+        return result;
+    }
+
+    /**
+     * Starts {@code count} futures with at most {@code maxConcurrency} running at once.
+     * The first failure fails the returned future and cancels the futures still running,
+     * cancelling the returned future cancels them as well.
+     *
+     * @param count          number of futures to start
+     * @param maxConcurrency max futures running at once
+     * @param starter        starts the future with the given index
+     * @return a future of all results in index order
+     */
+    public static <T> CompletableFuture<List<T>> inOrder(int count,
+                                                         int maxConcurrency,
+                                                         @NotNull IntFunction<? extends CompletableFuture<? extends T>> starter) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency < 1: " + maxConcurrency);
+        AtomicReferenceArray<CompletableFuture<? extends T>> running = new AtomicReferenceArray<>(count);
+        CompletableFuture<List<T>> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                cancelAll(running);
+                return cancelled;
+            }
+        };
+        if (count == 0) {
+            result.complete(List.of());
+            return result;
+        }
+        Object[] values = new Object[count];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(count);
+        // starts requested while a start is running are run by that caller in a loop, so futures
+        // that complete synchronously do not recurse one level deeper per element
+        AtomicInteger starts = new AtomicInteger();
+        Runnable[] startNext = new Runnable[1];
+        Runnable startOne = () -> {
+            int index = next.getAndIncrement();
+            if (index >= count || result.isDone())
+                return;
+            CompletableFuture<? extends T> future;
+            try {
+                future = Objects.requireNonNull(starter.apply(index), "starter returned null");
+            } catch (Throwable e) {
+                if (result.completeExceptionally(e))
+                    cancelAll(running);
+                return;
+            }
+            running.set(index, future);
+            future.whenComplete((value, error) -> {
+                running.set(index, null);
+                if (error != null) {
+                    if (result.completeExceptionally(unwrap(error)))
+                        cancelAll(running);
+                    return;
+                }
+                values[index] = value;
+                if (remaining.decrementAndGet() == 0)
+                    result.complete(toList(values));
+                else
+                    startNext[0].run();
+            });
+        };
+        startNext[0] = () -> {
+            if (starts.getAndIncrement() != 0)
+                return;
+            do {
+                startOne.run();
+            } while (starts.decrementAndGet() != 0);
+        };
+        for (int i = 0; i < Math.min(count, maxConcurrency); i++) {
+            startNext[0].run();
+        }
+        return result;
+    }
+
+    /**
+     * @return the real failure of a future, without the {@link CompletionException} wrapper
+     */
+    public static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null)
+            return error.getCause();
+        return error;
+    }
+
+    private static <T> void cancelAll(AtomicReferenceArray<CompletableFuture<? extends T>> running) {
+        for (int i = 0; i < running.length(); i++) {
+            CompletableFuture<? extends T> future = running.getAndSet(i, null);
+            if (future != null)
+                future.cancel(true);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Object[] values) {
+        return (List<T>) new ArrayList<>(Arrays.asList(values));
+    }
+}
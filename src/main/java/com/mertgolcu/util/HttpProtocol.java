@@ -0,0 +1,34 @@
+package com.mertgolcu.util;
+
+import okhttp3.Protocol;
+
+import java.util.List;
+
+/**
+ * HTTP versions a client can be limited to.
+ */
+public enum HttpProtocol {
+    /**
+     * HTTP/1.1 only, one call per connection at a time.
+     */
+    HTTP_1_1(List.of(Protocol.HTTP_1_1)),
+    /**
+     * HTTP/2 when the server offers it with ALPN over TLS, HTTP/1.1 otherwise. This is OkHttp's default.
+     */
+    HTTP_2(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)),
+    /**
+     * Cleartext HTTP/2 with prior knowledge, for servers that are known to speak h2c.
+     * Only plain http urls can be used.
+     */
+    H2C(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+
+    private final List<Protocol> protocols;
+
+    HttpProtocol(List<Protocol> protocols) {
+        this.protocols = protocols;
+    }
+
+    public List<Protocol> getProtocols() {
+        return protocols;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mertgolcu.util;
+
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A per-thread Okio buffer for encoding bodies.
+ * <p>
+ * Segments written into it come from Okio's segment pool and go back to it when the buffer is read,
+ * so encoding a small body leaves only its exact-size bytes behind instead of full segments.
+ * An empty buffer holds no segments, so keeping one per thread, virtual threads included, is cheap.
+ */
+public final class ScratchBuffer {
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private ScratchBuffer() {
+    }
+
+    /**
+     * @return the empty buffer of this thread, it must be read or cleared before the thread uses it again
+     */
+    @NotNull
+    public static Buffer get() {
+        Buffer buffer = BUFFER.get();
+        buffer.clear();
+        return buffer;
+    }
+}
@@ -0,0 +1,43 @@
+package com.mertgolcu.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up the virtual-thread executor at runtime.
+ * <p>
+ * The project targets Java 19 where virtual threads are a preview API, so the factory
+ * is resolved by reflection. It works on Java 21+ or on Java 19/20 with {@code --enable-preview}.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            newVirtualThreadPerTaskExecutor().shutdown();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task
+     * @throws IllegalStateException if the running JVM can not create virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Virtual threads are not available on this JVM", e);
+        } catch (InvocationTargetException e) {
+            // preview features are disabled
+            throw new IllegalStateException("Virtual threads are not enabled, use Java 21+ or --enable-preview", e.getCause());
+        }
+    }
+}
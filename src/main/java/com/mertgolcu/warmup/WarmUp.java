@@ -0,0 +1,180 @@
+package com.mertgolcu.warmup;
+
+import com.mertgolcu.json.AdapterRegistry;
+import com.squareup.moshi.JsonAdapter;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link WarmUpPolicy}: resolves the hosts and opens their connections while the adapters
+ * are created and exercised. Nothing waits on a thread, the steps are chained on the executor.
+ */
+public class WarmUp {
+
+    private final OkHttpClient client;
+    private final AdapterRegistry adapters;
+    private final Executor executor;
+    // keeps the decoded samples observable, so the loops are not optimized away
+    private volatile int sink;
+
+    /**
+     * @param client sends the warm-up requests, usually one without interceptors that shares the pool
+     */
+    public WarmUp(@NotNull OkHttpClient client, @NotNull AdapterRegistry adapters, @NotNull Executor executor) {
+        this.client = client;
+        this.adapters = adapters;
+        this.executor = executor;
+    }
+
+    @NotNull
+    public CompletableFuture<WarmUpReport> start(@NotNull WarmUpPolicy policy) {
+        long start = System.nanoTime();
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        AtomicInteger resolved = new AtomicInteger();
+        List<CompletableFuture<Void>> hosts = new ArrayList<>();
+        for (HttpUrl url : distinctHosts(policy.getUrls())) {
+            hosts.add(CompletableFuture
+                    .runAsync(() -> resolve(url.host()), executor)
+                    .thenCompose(ignored -> {
+                        resolved.incrementAndGet();
+                        return connect(url, policy);
+                    })
+                    .whenComplete((ignored, error) -> {
+                        if (error != null)
+                            failures.putIfAbsent(url.host(), unwrap(error));
+                    }));
+        }
+        int[] created = new int[1];
+        CompletableFuture<Long> decodes = CompletableFuture.supplyAsync(() -> {
+            created[0] = createAdapters(policy, failures);
+            return exercise(policy, failures);
+        }, executor);
+        hosts.add(decodes.thenApply(ignored -> null));
+        return CompletableFuture.allOf(hosts.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> new WarmUpReport(
+                        Duration.ofNanos(System.nanoTime() - start),
+                        resolved.get(),
+                        client.connectionPool().connectionCount(),
+                        created[0],
+                        decodes.getNow(0L),
+                        Map.copyOf(failures)));
+    }
+
+    private void resolve(String host) {
+        try {
+            client.dns().lookup(host);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens the first connection to learn the protocol. Over HTTP/1.x the HEAD requests are then sent
+     * at the same time, one reuses the open connection and every other one needs a connection of its own.
+     * Over HTTP/2 all requests share one connection, so it is the only one opened.
+     */
+    private CompletableFuture<Void> connect(HttpUrl url, WarmUpPolicy policy) {
+        if (policy.getConnectionsPerHost() == 0)
+            return CompletableFuture.completedFuture(null);
+        Request request = new Request.Builder().url(url).head().build();
+        return head(request, policy).thenCompose(protocol -> {
+            if (policy.getConnectionsPerHost() == 1 || (protocol != Protocol.HTTP_1_0 && protocol != Protocol.HTTP_1_1))
+                return CompletableFuture.completedFuture(null);
+            CompletableFuture<?>[] requests = new CompletableFuture<?>[policy.getConnectionsPerHost()];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = head(request, policy);
+            }
+            return CompletableFuture.allOf(requests);
+        });
+    }
+
+    private CompletableFuture<Protocol> head(Request request, WarmUpPolicy policy) {
+        return CompletableFuture.supplyAsync(() -> {
+            Call call = client.newCall(request);
+            call.timeout().timeout(policy.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            // any status means the connection is open
+            try (Response response = call.execute()) {
+                return response.protocol();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private int createAdapters(WarmUpPolicy policy, Map<String, Throwable> failures) {
+        Set<Type> types = new LinkedHashSet<>(policy.getTypes());
+        types.addAll(policy.getSamples().keySet());
+        int created = 0;
+        for (Type type : types) {
+            try {
+                adapters.get(type);
+                created++;
+            } catch (RuntimeException e) {
+                failures.put(type.getTypeName(), e);
+            }
+        }
+        return created;
+    }
+
+    private long exercise(WarmUpPolicy policy, Map<String, Throwable> failures) {
+        long decodes = 0;
+        for (Map.Entry<Type, WarmUpPolicy.Sample> entry : policy.getSamples().entrySet()) {
+            Type type = entry.getKey();
+            if (failures.containsKey(type.getTypeName()))
+                continue;
+            JsonAdapter<Object> adapter = adapters.get(type);
+            ByteString json = ByteString.encodeUtf8(entry.getValue().json());
+            Buffer buffer = new Buffer();
+            try {
+                for (int i = 0; i < entry.getValue().iterations(); i++) {
+                    Object value = adapter.fromJson(buffer.write(json));
+                    adapter.toJson(buffer, value);
+                    sink += (int) buffer.size();
+                    buffer.clear();
+                    decodes++;
+                }
+            } catch (IOException | RuntimeException e) {
+                buffer.clear();
+                failures.put(type.getTypeName(), e);
+            }
+        }
+        return decodes;
+    }
+
+    private static Iterable<HttpUrl> distinctHosts(List<HttpUrl> urls) {
+        Map<String, HttpUrl> hosts = new LinkedHashMap<>();
+        for (HttpUrl url : urls) {
+            hosts.putIfAbsent(url.host() + ":" + url.port(), url);
+        }
+        return hosts.values();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof UncheckedIOException unchecked ? unchecked.getCause() : cause;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mertgolcu.warmup;
+
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a client prepares before its first requests, see
+ * {@link com.mertgolcu.SimpleClient.Builder#warmUp(WarmUpPolicy)}.
+ */
+public class WarmUpPolicy {
+
+    private final List<HttpUrl> urls = new ArrayList<>();
+    private int connectionsPerHost = 1;
+    private final List<Type> types = new ArrayList<>();
+    private final Map<Type, Sample> samples = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Resolves the host of the url and opens connections to it with HEAD requests.
+     * A cheap endpoint like a health check fits best, the status of the responses is ignored.
+     */
+    public WarmUpPolicy url(@NotNull String url) {
+        urls.add(HttpUrl.get(url));
+        return this;
+    }
+
+    /**
+     * Connections opened to every host over HTTP/1.1. The connection pool keeps at most its
+     * max idle connections, more are closed again. An HTTP/2 host gets a single connection,
+     * which carries all its calls.
+     */
+    public WarmUpPolicy connectionsPerHost(int connectionsPerHost) {
+        if (connectionsPerHost < 0)
+            throw new IllegalArgumentException("connectionsPerHost < 0: " + connectionsPerHost);
+        this.connectionsPerHost = connectionsPerHost;
+        return this;
+    }
+
+    /**
+     * Creates the adapters of the types.
+     */
+    public WarmUpPolicy types(@NotNull Type... types) {
+        Collections.addAll(this.types, types);
+        return this;
+    }
+
+    /**
+     * Decodes and encodes the sample {@code iterations} times, so the adapter code of the type
+     * is compiled before real responses arrive.
+     *
+     * @param json a typical response body of the type
+     */
+    public WarmUpPolicy decode(@NotNull Type type, @NotNull String json, int iterations) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("iterations < 1: " + iterations);
+        samples.put(type, new Sample(json, iterations));
+        return this;
+    }
+
+    /**
+     * Time the connections may take, hosts that are not connected by then are reported as failed.
+     */
+    public WarmUpPolicy timeout(@NotNull Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public List<HttpUrl> getUrls() {
+        return Collections.unmodifiableList(urls);
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    public List<Type> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    public Map<Type, Sample> getSamples() {
+        return Collections.unmodifiableMap(samples);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param json       body that is decoded
+     * @param iterations how often it is decoded and encoded
+     */
+    public record Sample(String json, int iterations) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.mertgolcu.warmup;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of a warm-up.
+ *
+ * @param elapsed       time the warm-up took
+ * @param resolvedHosts hosts whose addresses were resolved
+ * @param connections   connections in the pool after the warm-up
+ * @param adapters      adapters that were created
+ * @param decodes       synthetic decode and encode iterations that ran
+ * @param failures      errors by host or type name, empty when the client is ready
+ */
+public record WarmUpReport(Duration elapsed,
+                           int resolvedHosts,
+                           int connections,
+                           int adapters,
+                           long decodes,
+                           Map<String, Throwable> failures) {
+
+    /**
+     * @return true if every step succeeded
+     */
+    public boolean isReady() {
+        return failures.isEmpty();
+    }
+}